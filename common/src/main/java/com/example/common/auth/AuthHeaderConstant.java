@@ -0,0 +1,20 @@
+package com.example.common.auth;
+
+/**
+ * 网关校验令牌后向下游透传的身份请求头
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public interface AuthHeaderConstant {
+
+    /**
+     * 用户id
+     */
+    String USER_ID = "userId";
+
+    /**
+     * 用户名(URL编码)
+     */
+    String USER_NAME = "username";
+}
@@ -0,0 +1,25 @@
+package com.example.common.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 当前登录用户，由网关透传的身份请求头解析得到
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@AllArgsConstructor
+public class LoginUser {
+
+    /**
+     * 用户id
+     */
+    private String userId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+}
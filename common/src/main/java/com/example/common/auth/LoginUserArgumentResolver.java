@@ -0,0 +1,39 @@
+package com.example.common.auth;
+
+import com.example.common.exception.BusinessException;
+import com.example.common.result.ErrorCode;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 控制器方法中 {@link LoginUser} 参数的解析器
+ * <p>
+ * 直接读取网关校验令牌后写入的身份请求头，下游服务无需再次解析JWT。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class LoginUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return LoginUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public LoginUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                     NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        String userId = webRequest.getHeader(AuthHeaderConstant.USER_ID);
+        if (userId == null || userId.isEmpty()) {
+            throw new BusinessException(ErrorCode.TOKEN_MISSION);
+        }
+        String username = webRequest.getHeader(AuthHeaderConstant.USER_NAME);
+        return new LoginUser(userId, username == null ? null : URLDecoder.decode(username, StandardCharsets.UTF_8));
+    }
+}
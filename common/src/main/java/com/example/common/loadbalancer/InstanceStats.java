@@ -0,0 +1,85 @@
+package com.example.common.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个实例的延迟EWMA、在途请求数与首次发现时间
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class InstanceStats {
+
+    /**
+     * 首次发现时间为该值时视为已预热
+     */
+    static final long WARM = 0L;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 延迟EWMA(纳秒)
+     */
+    private double ewma;
+
+    /**
+     * 最近一次更新EWMA的时间(纳秒)
+     */
+    private long lastUpdate;
+
+    /**
+     * 本节点首次发现该实例的时间(毫秒时间戳)，{@link #WARM} 表示视为已预热
+     */
+    private final long firstSeenMillis;
+
+    InstanceStats(double initialEwma, long now, long firstSeenMillis) {
+        this.ewma = initialEwma;
+        this.lastUpdate = now;
+        this.firstSeenMillis = firstSeenMillis;
+    }
+
+    long getFirstSeenMillis() {
+        return firstSeenMillis;
+    }
+
+    void start() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * 记录一次完成的请求：按距上次更新的时间衰减旧值
+     */
+    synchronized void complete(long latencyNanos, long now, double decayNanos) {
+        inFlight.decrementAndGet();
+        double weight = Math.exp(-Math.max(now - lastUpdate, 0L) / decayNanos);
+        ewma = ewma * weight + latencyNanos * (1 - weight);
+        lastUpdate = now;
+    }
+
+    /**
+     * 请求被取消(如对冲请求落败)，只释放在途计数，不计入延迟
+     */
+    void discard() {
+        inFlight.decrementAndGet();
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized double getEwma() {
+        return ewma;
+    }
+
+    /**
+     * 空闲期间历史延迟向平均值回落后的延迟估计
+     */
+    synchronized double recoveredEwma(double mean, long now, double idleRecoveryNanos) {
+        long idle = now - lastUpdate;
+        if (idle <= 0 || inFlight.get() > 0) {
+            return ewma;
+        }
+        double remaining = Math.max(0D, 1D - idle / idleRecoveryNanos);
+        return mean + (ewma - mean) * remaining;
+    }
+}
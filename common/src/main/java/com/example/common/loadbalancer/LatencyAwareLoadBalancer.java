@@ -0,0 +1,301 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 延迟感知的二选一(power of two choices)负载均衡
+ * <p>
+ * 每个实例维护延迟EWMA与在途请求数，随机取两个候选实例，选择 EWMA × (在途数 + 1) 较小者。
+ * 负载均衡器同时作为 {@link LoadBalancerLifecycle} 注册在同一个客户端上下文中，
+ * 网关(ReactiveLoadBalancerClientFilter)与Feign(FeignBlockingLoadBalancerClient)都会回调它记录请求耗时。
+ * 新出现的实例以现有实例的平均延迟起步，长时间未被选中的实例其历史延迟逐渐回落到平均值，以便重新探测。
+ * <p>
+ * 预热：候选实例按权重随机抽取，新实例的权重在 warmupTime 内从 warmupMinWeight 线性增长到1。
+ * 实例启动时间取自元数据(见 {@link StartupTimeMetadata})，缺失时取本节点首次发现该实例的时间；
+ * 负载均衡器创建后第一次拿到的实例列表视为已预热，避免网关重启时所有实例都被限流。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+
+    private final String serviceId;
+
+    private final LatencyAwareLoadBalancerProperties properties;
+
+    private final LongSupplier nanoClock;
+
+    private final LongSupplier millisClock;
+
+    /**
+     * 是否已处理过第一次拿到的实例列表
+     */
+    private volatile boolean initialized;
+
+    /**
+     * host:port -> 实例统计
+     */
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, LatencyAwareLoadBalancerProperties properties) {
+        this(serviceInstanceListSupplierProvider, serviceId, properties, System::nanoTime, System::currentTimeMillis);
+    }
+
+    LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                             String serviceId, LatencyAwareLoadBalancerProperties properties,
+                             LongSupplier nanoClock, LongSupplier millisClock) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.millisClock = millisClock;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback && response.hasServer()) {
+                ((SelectedInstanceCallback) supplier).selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        int size = instances.size();
+        if (size == 0) {
+            return new EmptyResponse();
+        }
+        long now = nanoClock.getAsLong();
+        double mean = meanEwma(instances);
+        if (stats.size() > size * 2) {
+            //清理已下线实例的统计
+            stats.keySet().retainAll(instances.stream().map(LatencyAwareLoadBalancer::keyOf).toList());
+        }
+        //单实例的列表也要经过预热统计，否则从一个实例扩容时新实例会被当作首次列表中的已预热实例
+        double[] weights = warmupWeights(instances, mean, now);
+        if (size == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = pick(weights, size, -1, random);
+        int second = pick(weights, size, first, random);
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        double costA = cost(a, mean, now);
+        double costB = cost(b, mean, now);
+        return new DefaultResponse(costA <= costB ? a : b);
+    }
+
+    /**
+     * 计算各实例的预热权重
+     *
+     * @return 所有实例均已预热时返回null
+     */
+    double[] warmupWeights(List<ServiceInstance> instances, double mean, long now) {
+        boolean initialListing = !initialized;
+        initialized = true;
+        long warmupTime = properties.getWarmupTime();
+        long nowMillis = millisClock.getAsLong();
+        long firstSeen = initialListing ? InstanceStats.WARM : nowMillis;
+        if (warmupTime <= 0) {
+            //仍登记首次发现时间，之后开启预热时不会把已在运行的实例当作新实例
+            instances.forEach(instance -> statsOf(instance, mean, now, firstSeen));
+            return null;
+        }
+        double[] weights = null;
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance instance = instances.get(i);
+            InstanceStats instanceStats = statsOf(instance, mean, now, firstSeen);
+            long startupTime = startupTimeOf(instance, instanceStats);
+            long elapsed = nowMillis - startupTime;
+            if (startupTime == InstanceStats.WARM || elapsed >= warmupTime) {
+                continue;
+            }
+            if (weights == null) {
+                weights = new double[instances.size()];
+                Arrays.fill(weights, 1D);
+            }
+            weights[i] = Math.max(properties.getWarmupMinWeight(), Math.max(elapsed, 0L) / (double) warmupTime);
+        }
+        return weights;
+    }
+
+    private long startupTimeOf(ServiceInstance instance, InstanceStats instanceStats) {
+        Map<String, String> metadata = instance.getMetadata();
+        String startupTime = metadata == null ? null : metadata.get(properties.getStartupTimeMetadataKey());
+        if (startupTime != null) {
+            try {
+                return Long.parseLong(startupTime);
+            } catch (NumberFormatException ignored) {
+                //按首次发现时间处理
+            }
+        }
+        return instanceStats.getFirstSeenMillis();
+    }
+
+    /**
+     * 按权重随机选择一个下标
+     *
+     * @param weights  权重，为null时等概率
+     * @param size     实例数
+     * @param excluded 排除的下标，-1表示不排除
+     */
+    private static int pick(double[] weights, int size, int excluded, ThreadLocalRandom random) {
+        if (weights == null) {
+            int index = random.nextInt(excluded < 0 ? size : size - 1);
+            return excluded >= 0 && index >= excluded ? index + 1 : index;
+        }
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += i == excluded ? 0D : weights[i];
+        }
+        double target = random.nextDouble() * total;
+        int last = -1;
+        for (int i = 0; i < size; i++) {
+            if (i == excluded) {
+                continue;
+            }
+            last = i;
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * 实例代价：空闲回落后的延迟估计 × (在途请求数 + 1)
+     */
+    double cost(ServiceInstance instance, double mean, long now) {
+        InstanceStats instanceStats = statsOf(instance, mean, now);
+        double idleRecovery = TimeUnit.MILLISECONDS.toNanos(properties.getIdleRecovery());
+        //加1纳秒，使尚无延迟数据时仍按在途请求数比较
+        return (instanceStats.recoveredEwma(mean, now, idleRecovery) + 1) * (instanceStats.getInFlight() + 1);
+    }
+
+    /**
+     * 已有统计的实例的平均延迟，作为新实例的初始值
+     */
+    double meanEwma(List<ServiceInstance> instances) {
+        double sum = 0;
+        int count = 0;
+        for (ServiceInstance instance : instances) {
+            InstanceStats instanceStats = stats.get(keyOf(instance));
+            if (instanceStats != null) {
+                sum += instanceStats.getEwma();
+                count++;
+            }
+        }
+        return count == 0 ? 0D : sum / count;
+    }
+
+    InstanceStats statsOf(ServiceInstance instance, double mean, long now) {
+        return statsOf(instance, mean, now, millisClock.getAsLong());
+    }
+
+    private InstanceStats statsOf(ServiceInstance instance, double mean, long now, long firstSeenMillis) {
+        return stats.computeIfAbsent(keyOf(instance), key -> new InstanceStats(mean, now, firstSeenMillis));
+    }
+
+    //接口以原始类型声明 Class 参数，覆盖时无法改为参数化类型
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (request.getContext() instanceof TimedRequestContext timedContext) {
+            timedContext.setRequestStartTime(now);
+        }
+        statsOf(lbResponse.getServer(), meanOfAll(), now).start();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats instanceStats = stats.get(keyOf(lbResponse.getServer()));
+        if (instanceStats == null) {
+            return;
+        }
+        Object context = completionContext.getLoadBalancerRequest() == null
+                ? null : completionContext.getLoadBalancerRequest().getContext();
+        //请求被取消(如网关的对冲请求落败)时以 DISCARD 回调；拿不到开始时间时同样无从计算延迟，都只释放在途计数
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || !(context instanceof TimedRequestContext timedContext)
+                || timedContext.getRequestStartTime() == 0L) {
+            instanceStats.discard();
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        long latency = now - timedContext.getRequestStartTime();
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            latency = Math.max(latency, TimeUnit.MILLISECONDS.toNanos(properties.getFailurePenalty()));
+        }
+        instanceStats.complete(latency, now, TimeUnit.MILLISECONDS.toNanos(properties.getDecayTime()));
+    }
+
+    private double meanOfAll() {
+        double sum = 0;
+        int count = 0;
+        for (InstanceStats instanceStats : stats.values()) {
+            sum += instanceStats.getEwma();
+            count++;
+        }
+        return count == 0 ? 0D : sum / count;
+    }
+
+    static String keyOf(ServiceInstance instance) {
+        return instance.getHost() + ':' + instance.getPort();
+    }
+
+    /**
+     * @return 服务名
+     */
+    public String getServiceId() {
+        return serviceId;
+    }
+}
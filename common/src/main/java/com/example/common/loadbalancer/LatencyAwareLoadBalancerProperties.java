@@ -0,0 +1,52 @@
+package com.example.common.loadbalancer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 延迟感知负载均衡配置
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "loadbalancer.latency-aware")
+@Component
+public class LatencyAwareLoadBalancerProperties {
+
+    /**
+     * 是否以延迟感知的二选一策略替换默认的轮询策略
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 延迟EWMA的时间常数(毫秒)，越小对延迟变化越敏感
+     */
+    private Long decayTime = 2_000L;
+
+    /**
+     * 实例空闲多久后(毫秒)其历史延迟完全回落到平均值，使曾经变慢的实例能重新被探测
+     */
+    private Long idleRecovery = 10_000L;
+
+    /**
+     * 请求失败时按不低于该值(毫秒)的延迟计入
+     */
+    private Long failurePenalty = 1_000L;
+
+    /**
+     * 新实例的预热时间(毫秒)，期间分到的流量从 warmupMinWeight 线性增加到正常份额，0 表示不预热
+     */
+    private Long warmupTime = 60_000L;
+
+    /**
+     * 预热开始时的最小权重(0~1)
+     */
+    private Double warmupMinWeight = 0.1;
+
+    /**
+     * 实例元数据中的启动时间键(毫秒时间戳)，缺失时以本节点首次发现该实例的时间为准
+     */
+    private String startupTimeMetadataKey = "startup-time";
+}
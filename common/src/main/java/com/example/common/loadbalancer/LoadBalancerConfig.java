@@ -0,0 +1,17 @@
+package com.example.common.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 为所有服务(网关路由与Feign客户端)启用延迟感知负载均衡
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "loadbalancer.latency-aware", name = "enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
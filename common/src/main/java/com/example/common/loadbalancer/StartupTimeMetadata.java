@@ -0,0 +1,32 @@
+package com.example.common.loadbalancer;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 注册到nacos前将JVM启动时间写入实例元数据，供调用方的负载均衡对新实例预热
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class StartupTimeMetadata implements InitializingBean {
+
+    @Resource
+    private ObjectProvider<NacosDiscoveryProperties> nacosDiscoveryProperties;
+
+    @Resource
+    private LatencyAwareLoadBalancerProperties latencyAwareLoadBalancerProperties;
+
+    @Override
+    public void afterPropertiesSet() {
+        long startupTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+        nacosDiscoveryProperties.ifAvailable(properties -> properties.getMetadata()
+                .putIfAbsent(latencyAwareLoadBalancerProperties.getStartupTimeMetadataKey(), String.valueOf(startupTime)));
+    }
+}
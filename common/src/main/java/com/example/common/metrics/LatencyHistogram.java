@@ -0,0 +1,188 @@
+package com.example.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数线性延迟直方图(HDR风格)
+ * <p>
+ * 以微秒为单位记录，每个2的幂区间再线性划分为32个桶，相对误差不超过约3%，
+ * 覆盖 0 ~ 约2^40微秒。记录只做一次数组下标计算与原子自增，不分配对象，可被任意线程并发调用。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class LatencyHistogram {
+
+    /**
+     * 每个2的幂区间的线性子桶位数
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_EXPONENT = 40;
+
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder totalCount = new LongAdder();
+
+    private final LongAdder totalMicros = new LongAdder();
+
+    private volatile long startNanos = System.nanoTime();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时(纳秒)
+     */
+    public void recordNanos(long nanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0L)));
+    }
+
+    /**
+     * 记录一次耗时
+     *
+     * @param micros 耗时(微秒)
+     */
+    public void record(long micros) {
+        counts.incrementAndGet(indexOf(micros));
+        totalCount.increment();
+        totalMicros.add(micros);
+    }
+
+    /**
+     * 生成快照，快照期间的并发记录可能部分计入
+     *
+     * @return {@link Snapshot}
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, totalCount.sum(), totalMicros.sum(), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 清空已记录的数据，重新开始统计
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        totalCount.reset();
+        totalMicros.reset();
+        startNanos = System.nanoTime();
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) Math.max(micros, 0L);
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        if (exponent == MAX_EXPONENT && micros >>> MAX_EXPONENT > 1) {
+            subBucket = SUB_BUCKET_COUNT - 1;
+        }
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 桶的上界(微秒)
+     */
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+
+    /**
+     * 直方图快照
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long totalMicros;
+
+        private final long elapsedNanos;
+
+        private Snapshot(long[] counts, long count, long totalMicros, long elapsedNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * 分位数(微秒)
+         *
+         * @param quantile 0~1
+         * @return 落在该分位的桶上界，无数据时为0
+         */
+        public long percentile(double quantile) {
+            long total = 0;
+            for (long bucket : counts) {
+                total += bucket;
+            }
+            if (total == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundOf(i);
+                }
+            }
+            return upperBoundOf(counts.length - 1);
+        }
+
+        /**
+         * @return 记录次数
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return 平均耗时(微秒)
+         */
+        public long getMeanMicros() {
+            return count == 0 ? 0L : totalMicros / count;
+        }
+
+        /**
+         * @return 统计开始以来的每秒记录次数
+         */
+        public double getThroughput() {
+            return elapsedNanos <= 0 ? 0D : count * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * 与另一个快照合并
+         *
+         * @param other 快照
+         * @return 合并后的快照
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = counts.clone();
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, count + other.count, totalMicros + other.totalMicros,
+                    Math.max(elapsedNanos, other.elapsedNanos));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.common.redis;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * redis 发布订阅监听容器，供各模块的本地缓存接收失效广播
+ * <p>
+ * 未注册监听器时容器不会建立订阅连接。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Configuration
+public class RedisListenerConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+}
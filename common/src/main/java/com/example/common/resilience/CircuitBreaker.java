@@ -0,0 +1,232 @@
+package com.example.common.resilience;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 熔断器：按滑动窗口内的失败率与慢调用率在关闭、打开、半开三种状态间切换
+ * <p>
+ * 关闭时放行所有调用，窗口内调用数达到 minimumCalls 且失败率或慢调用率达到阈值时打开；
+ * 打开时拒绝调用，openDuration 后转为半开，放行 halfOpenCalls 个探测调用；
+ * 探测全部成功则关闭并清空窗口，任一探测失败则重新打开。
+ * 窗口按10个时间槽滚动，状态与计数由同一把锁保护。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class CircuitBreaker {
+
+    private static final int SLOTS = 10;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 状态变化回调
+     */
+    @FunctionalInterface
+    public interface TransitionListener {
+
+        void onTransition(State from, State to);
+    }
+
+    private final double failureRateThreshold;
+
+    private final double slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final int minimumCalls;
+
+    private final long slotNanos;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final LongSupplier nanoClock;
+
+    private final TransitionListener listener;
+
+    private final long[] epochs = new long[SLOTS];
+
+    private final long[] calls = new long[SLOTS];
+
+    private final long[] failures = new long[SLOTS];
+
+    private final long[] slowCalls = new long[SLOTS];
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    /**
+     * 半开状态下已放行的探测数
+     */
+    private int probesStarted;
+
+    /**
+     * 半开状态下已成功的探测数
+     */
+    private int probesSucceeded;
+
+    /**
+     * @param failureRateThreshold  失败率阈值(0~1)
+     * @param slowCallRateThreshold 慢调用率阈值(0~1)，大于1表示不按慢调用熔断
+     * @param slowCallNanos         超过该耗时(纳秒)的调用计为慢调用
+     * @param minimumCalls          窗口内至少多少次调用才计算比率
+     * @param windowNanos           统计窗口(纳秒)
+     * @param openNanos             打开状态的持续时间(纳秒)
+     * @param halfOpenCalls         半开状态的探测调用数
+     * @param nanoClock             时钟
+     * @param listener              状态变化回调
+     */
+    public CircuitBreaker(double failureRateThreshold, double slowCallRateThreshold, long slowCallNanos,
+                          int minimumCalls, long windowNanos, long openNanos, int halfOpenCalls,
+                          LongSupplier nanoClock, TransitionListener listener) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.minimumCalls = Math.max(minimumCalls, 1);
+        this.slotNanos = Math.max(windowNanos / SLOTS, 1L);
+        this.openNanos = openNanos;
+        this.halfOpenCalls = Math.max(halfOpenCalls, 1);
+        this.nanoClock = nanoClock;
+        this.listener = listener;
+        resetWindow(nanoClock.getAsLong() / slotNanos);
+    }
+
+    /**
+     * 调用前检查是否放行；放行后必须以 {@link #onSuccess} 或 {@link #onFailure} 结束，
+     * 未真正发出的调用以 {@link #onIgnored} 结束
+     *
+     * @return true=放行
+     */
+    public boolean tryAcquire() {
+        State from;
+        synchronized (this) {
+            from = state;
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            if (probesStarted >= halfOpenCalls) {
+                return false;
+            }
+            probesStarted++;
+        }
+        if (from != State.HALF_OPEN) {
+            listener.onTransition(from, State.HALF_OPEN);
+        }
+        return true;
+    }
+
+    /**
+     * 记录一次成功调用
+     *
+     * @param durationNanos 耗时(纳秒)
+     */
+    public void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    /**
+     * 记录一次失败调用
+     *
+     * @param durationNanos 耗时(纳秒)
+     */
+    public void onFailure(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    /**
+     * 放行后未真正发出的调用(如被舱壁拒绝)，归还半开探测名额
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    private void record(boolean failure, long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+        State from;
+        State to;
+        synchronized (this) {
+            from = state;
+            if (state == State.HALF_OPEN) {
+                if (failure || slow) {
+                    open();
+                } else if (++probesSucceeded >= halfOpenCalls) {
+                    state = State.CLOSED;
+                    resetWindow(nanoClock.getAsLong() / slotNanos);
+                }
+            } else if (state == State.CLOSED) {
+                long epoch = nanoClock.getAsLong() / slotNanos;
+                int slot = slot(epoch);
+                calls[slot]++;
+                if (failure) {
+                    failures[slot]++;
+                }
+                if (slow) {
+                    slowCalls[slot]++;
+                }
+                long total = sum(calls, epoch);
+                if (total >= minimumCalls && (sum(failures, epoch) >= failureRateThreshold * total
+                        || sum(slowCalls, epoch) >= slowCallRateThreshold * total)) {
+                    open();
+                }
+            }
+            to = state;
+        }
+        if (from != to) {
+            listener.onTransition(from, to);
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void resetWindow(long epoch) {
+        for (int i = 0; i < SLOTS; i++) {
+            epochs[i] = epoch - SLOTS;
+            calls[i] = 0L;
+            failures[i] = 0L;
+            slowCalls[i] = 0L;
+        }
+    }
+
+    private int slot(long epoch) {
+        int slot = (int) (epoch % SLOTS);
+        if (epochs[slot] != epoch) {
+            epochs[slot] = epoch;
+            calls[slot] = 0L;
+            failures[slot] = 0L;
+            slowCalls[slot] = 0L;
+        }
+        return slot;
+    }
+
+    private long sum(long[] counts, long epoch) {
+        long sum = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            if (epochs[i] > epoch - SLOTS) {
+                sum += counts[i];
+            }
+        }
+        return sum;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
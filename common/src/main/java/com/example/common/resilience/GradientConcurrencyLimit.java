@@ -0,0 +1,183 @@
+package com.example.common.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于RTT梯度的自适应并发上限(Gradient2 风格)
+ * <p>
+ * 以长期RTT(EWMA)与窗口内平均RTT之比作为梯度：排队使RTT升高时梯度小于1，上限随之收缩；
+ * 上限另加 sqrt(limit) 的排队余量以便探测更高的并发。每个采样窗口只由一个线程更新上限，
+ * 请求路径上只有在途计数的CAS与窗口累加。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class GradientConcurrencyLimit {
+
+    private final Settings settings;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    /**
+     * 当前窗口内的RTT之和(纳秒)
+     */
+    private final LongAdder windowRttSum = new LongAdder();
+
+    /**
+     * 当前窗口内的最大在途数
+     */
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+
+    private final LongAdder windowSamples = new LongAdder();
+
+    private volatile long windowStart;
+
+    private volatile int limit;
+
+    private volatile double estimatedLimit;
+
+    /**
+     * 长期RTT(纳秒)，0表示尚无采样
+     */
+    private volatile double longRtt;
+
+    public GradientConcurrencyLimit(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    public GradientConcurrencyLimit(Settings settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.limit = settings.initialLimit();
+        this.estimatedLimit = settings.initialLimit();
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @return true=获得名额，调用方须在完成后调用 {@link #release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放名额并记录一次RTT
+     *
+     * @param rttNanos 耗时(纳秒)，小于等于0表示不计入采样(如请求被取消)
+     */
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        if (rttNanos <= 0) {
+            return;
+        }
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+        long now = nanoClock.getAsLong();
+        if (now - windowStart >= settings.windowNanos() && updateLock.tryLock()) {
+            try {
+                if (now - windowStart >= settings.windowNanos()) {
+                    updateLimit(now);
+                }
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    private void updateLimit(long now) {
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttSum.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+        windowStart = now;
+        if (samples < settings.minWindowSamples()) {
+            return;
+        }
+        double shortRtt = (double) rttSum / samples;
+        double previousLongRtt = longRtt;
+        double currentLongRtt = previousLongRtt == 0 ? shortRtt
+                : previousLongRtt + (shortRtt - previousLongRtt) / settings.longWindow();
+        //长期RTT明显高于当前RTT时(如上游恢复)，加快长期RTT的回落
+        if (currentLongRtt / shortRtt > 2) {
+            currentLongRtt *= 0.95;
+        }
+        longRtt = currentLongRtt;
+
+        //并发未被用满时不扩大上限，避免上限无限增长
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, settings.tolerance() * currentLongRtt / shortRtt));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - settings.smoothing()) + newLimit * settings.smoothing();
+        newLimit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), newLimit));
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+
+    /**
+     * @return 当前并发上限
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return 当前在途请求数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return 累计拒绝次数
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return 长期RTT(微秒)
+     */
+    public long getLongRttMicros() {
+        return TimeUnit.NANOSECONDS.toMicros((long) longRtt);
+    }
+
+    /**
+     * 限流参数
+     *
+     * @param initialLimit     初始并发上限
+     * @param minLimit         最小并发上限
+     * @param maxLimit         最大并发上限
+     * @param tolerance        RTT容忍倍数，当前RTT不超过长期RTT的该倍数时不收缩
+     * @param smoothing        上限平滑系数(0~1)
+     * @param longWindow       长期RTT的EWMA窗口(采样窗口数)
+     * @param windowNanos      采样窗口长度(纳秒)
+     * @param minWindowSamples 窗口内最少采样数，不足时不更新上限
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                           int longWindow, long windowNanos, int minWindowSamples) {
+    }
+}
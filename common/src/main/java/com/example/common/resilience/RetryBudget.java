@@ -0,0 +1,124 @@
+package com.example.common.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 重试预算：滑动窗口内的重试(含对冲)次数不超过 请求数 × ratio + 每秒保底次数 × 窗口秒数
+ * <p>
+ * 下游整体变慢或报错时，盲目重试会把流量放大数倍并拖垮下游；预算把额外流量限制在正常流量的固定比例内。
+ * 窗口按10个时间槽滚动，请求路径上只有原子自增；检查与扣减不是原子的，并发时可能略微超出预算。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class RetryBudget {
+
+    private static final int SLOTS = 10;
+
+    private final double ratio;
+
+    private final long reserve;
+
+    private final long slotNanos;
+
+    private final LongSupplier nanoClock;
+
+    /**
+     * 各时间槽对应的槽序号(时间 / 槽长度)
+     */
+    private final AtomicLongArray epochs = new AtomicLongArray(SLOTS);
+
+    private final AtomicLongArray requests = new AtomicLongArray(SLOTS);
+
+    private final AtomicLongArray retries = new AtomicLongArray(SLOTS);
+
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * @param ratio               重试次数占请求数的比例上限
+     * @param minRetriesPerSecond 低流量时每秒保底可重试次数
+     * @param windowNanos         统计窗口(纳秒)
+     */
+    public RetryBudget(double ratio, int minRetriesPerSecond, long windowNanos) {
+        this(ratio, minRetriesPerSecond, windowNanos, System::nanoTime);
+    }
+
+    public RetryBudget(double ratio, int minRetriesPerSecond, long windowNanos, LongSupplier nanoClock) {
+        this.ratio = ratio;
+        this.reserve = (long) Math.ceil(minRetriesPerSecond * (double) windowNanos / TimeUnit.SECONDS.toNanos(1));
+        this.slotNanos = Math.max(windowNanos / SLOTS, 1L);
+        this.nanoClock = nanoClock;
+        long epoch = nanoClock.getAsLong() / slotNanos;
+        for (int i = 0; i < SLOTS; i++) {
+            epochs.set(i, epoch - SLOTS);
+        }
+    }
+
+    /**
+     * 记录一次原始请求，为重试存入额度
+     */
+    public void onRequest() {
+        requests.incrementAndGet(slot(nanoClock.getAsLong() / slotNanos));
+    }
+
+    /**
+     * 尝试使用一次重试额度
+     *
+     * @return true=预算内，可以重试
+     */
+    public boolean tryAcquire() {
+        long epoch = nanoClock.getAsLong() / slotNanos;
+        int slot = slot(epoch);
+        if (sum(retries, epoch) + 1 > reserve + sum(requests, epoch) * ratio) {
+            exhausted.increment();
+            return false;
+        }
+        retries.incrementAndGet(slot);
+        return true;
+    }
+
+    private int slot(long epoch) {
+        int slot = (int) (epoch % SLOTS);
+        long current = epochs.get(slot);
+        //进入新的时间槽时清零；与清零并发的少量计数可能丢失
+        if (current != epoch && epochs.compareAndSet(slot, current, epoch)) {
+            requests.set(slot, 0L);
+            retries.set(slot, 0L);
+        }
+        return slot;
+    }
+
+    private long sum(AtomicLongArray counts, long epoch) {
+        long sum = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            if (epochs.get(i) > epoch - SLOTS) {
+                sum += counts.get(i);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return 窗口内的请求数
+     */
+    public long getRequests() {
+        return sum(requests, nanoClock.getAsLong() / slotNanos);
+    }
+
+    /**
+     * @return 窗口内的重试数
+     */
+    public long getRetries() {
+        return sum(retries, nanoClock.getAsLong() / slotNanos);
+    }
+
+    /**
+     * @return 累计因预算耗尽而放弃的重试数
+     */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+}
@@ -14,8 +14,11 @@ public enum ErrorCode {
     PARAMS_ERROR(50010,"参数错误"),
     DATABASE_ERROR(50020, "数据库操作失败"),
     LOGOUT_ERROR(50030,"登出失败"),
+    SERVICE_OVERLOADED(50040,"服务繁忙，请稍后重试"),
+    UPSTREAM_UNAVAILABLE(50050,"下游服务暂不可用"),
     TOKEN_MISSION(40010,"Token丢失"),
-    TOKEN_INVALID(40020,"Token无效");
+    TOKEN_INVALID(40020,"Token无效"),
+    TOO_MANY_REQUESTS(40030,"请求过于频繁，请稍后重试");
     ;
 
     /**
@@ -0,0 +1,183 @@
+package com.example.common.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.cloud.loadbalancer.support.SimpleObjectProvider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 延迟感知负载均衡的离散事件模拟：请求按固定间隔到达，在所选实例上按其固有延迟完成
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE_ID = "user-service";
+
+    private static final long START = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void slowInstanceReceivesLittleTraffic() {
+        List<ServiceInstance> instances = instances(5);
+        Map<String, Long> latencies = new HashMap<>();
+        instances.forEach(instance -> latencies.put(instance.getInstanceId(), TimeUnit.MILLISECONDS.toNanos(10)));
+        latencies.put("instance-4", TimeUnit.MILLISECONDS.toNanos(100));
+
+        Map<String, Integer> picks = simulate(instances, latencies, 20_000, TimeUnit.MILLISECONDS.toNanos(1));
+
+        //轮询时每个实例约占20%
+        assertThat(share(picks, "instance-4", 20_000)).isLessThan(0.05);
+        instances.subList(0, 4).forEach(instance ->
+                assertThat(share(picks, instance.getInstanceId(), 20_000)).isGreaterThan(0.2));
+    }
+
+    @Test
+    void equalInstancesShareTrafficEvenly() {
+        List<ServiceInstance> instances = instances(4);
+        Map<String, Long> latencies = new HashMap<>();
+        instances.forEach(instance -> latencies.put(instance.getInstanceId(), TimeUnit.MILLISECONDS.toNanos(10)));
+
+        Map<String, Integer> picks = simulate(instances, latencies, 20_000, TimeUnit.MILLISECONDS.toNanos(1));
+
+        instances.forEach(instance ->
+                assertThat(share(picks, instance.getInstanceId(), 20_000)).isBetween(0.2, 0.3));
+    }
+
+    @Test
+    void inFlightRequestsSpreadLoadBeforeAnyLatencyIsKnown() {
+        List<ServiceInstance> instances = instances(3);
+        AtomicLong clock = new AtomicLong(START);
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(instances, clock);
+        Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+            Response<ServiceInstance> response = loadBalancer.choose(request).block();
+            loadBalancer.onStartRequest(request, response);
+            picks.merge(response.getServer().getInstanceId(), 1, Integer::sum);
+        }
+        //没有任何请求完成时，在途数使各实例的请求数相差不大
+        picks.values().forEach(count -> assertThat(count).isBetween(5, 15));
+    }
+
+    @Test
+    void slowInstanceIsProbedAgainAfterIdleRecovery() {
+        List<ServiceInstance> instances = instances(2);
+        AtomicLong clock = new AtomicLong(START);
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(instances, clock);
+        complete(loadBalancer, instances.get(0), clock, TimeUnit.MILLISECONDS.toNanos(10));
+        complete(loadBalancer, instances.get(1), clock, TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertThat(chosen(loadBalancer)).isEqualTo(instances.get(0));
+
+        //空闲超过 idleRecovery 后两者的延迟估计都回落到平均值，慢实例重新有机会被选中
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        boolean probed = false;
+        for (int i = 0; i < 50 && !probed; i++) {
+            probed = chosen(loadBalancer).equals(instances.get(1));
+        }
+        assertThat(probed).isTrue();
+    }
+
+    @Test
+    void completionWithoutStartTimeReleasesInFlight() {
+        List<ServiceInstance> instances = instances(2);
+        AtomicLong clock = new AtomicLong(START);
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(instances, clock);
+        //上下文不记录开始时间，完成时无法计算延迟
+        Request<Object> request = new DefaultRequest<>();
+        Response<ServiceInstance> response = new DefaultResponse(instances.get(0));
+        loadBalancer.onStartRequest(request, response);
+        assertThat(loadBalancer.statsOf(instances.get(0), 0D, clock.get()).getInFlight()).isEqualTo(1);
+
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+        assertThat(loadBalancer.statsOf(instances.get(0), 0D, clock.get()).getInFlight()).isZero();
+        loadBalancer.onStartRequest(request, response);
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED, new RuntimeException(),
+                null, response));
+        assertThat(loadBalancer.statsOf(instances.get(0), 0D, clock.get()).getInFlight()).isZero();
+    }
+
+    private Map<String, Integer> simulate(List<ServiceInstance> instances, Map<String, Long> latencies,
+                                          int requests, long interval) {
+        AtomicLong clock = new AtomicLong(START);
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(instances, clock);
+        PriorityQueue<Completion> completions = new PriorityQueue<>();
+        Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < requests; i++) {
+            long arrival = START + i * interval;
+            while (!completions.isEmpty() && completions.peek().at <= arrival) {
+                Completion completion = completions.poll();
+                clock.set(completion.at);
+                loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS,
+                        completion.request, completion.response));
+            }
+            clock.set(arrival);
+            Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+            Response<ServiceInstance> response = loadBalancer.choose(request).block();
+            loadBalancer.onStartRequest(request, response);
+            String instanceId = response.getServer().getInstanceId();
+            picks.merge(instanceId, 1, Integer::sum);
+            completions.add(new Completion(arrival + latencies.get(instanceId), request, response));
+        }
+        return picks;
+    }
+
+    private static void complete(LatencyAwareLoadBalancer loadBalancer, ServiceInstance instance,
+                                 AtomicLong clock, long latency) {
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(request, response);
+        clock.addAndGet(latency);
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+    }
+
+    private static ServiceInstance chosen(LatencyAwareLoadBalancer loadBalancer) {
+        return loadBalancer.choose(new DefaultRequest<>(new RequestDataContext())).block().getServer();
+    }
+
+    private static LatencyAwareLoadBalancer loadBalancer(List<ServiceInstance> instances, AtomicLong clock) {
+        return new LatencyAwareLoadBalancer(
+                new SimpleObjectProvider<>(ServiceInstanceListSuppliers.from(SERVICE_ID,
+                        instances.toArray(new ServiceInstance[0]))),
+                SERVICE_ID, new LatencyAwareLoadBalancerProperties(), clock::get, System::currentTimeMillis);
+    }
+
+    private static List<ServiceInstance> instances(int count) {
+        List<ServiceInstance> instances = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            instances.add(new DefaultServiceInstance("instance-" + i, SERVICE_ID, "10.0.0." + i, 8080, false));
+        }
+        return instances;
+    }
+
+    private static double share(Map<String, Integer> picks, String instanceId, int total) {
+        return picks.getOrDefault(instanceId, 0) / (double) total;
+    }
+
+    private record Completion(long at, Request<Object> request, Response<ServiceInstance> response)
+            implements Comparable<Completion> {
+
+        @Override
+        public int compareTo(Completion other) {
+            return Long.compare(at, other.at);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.common.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.DiscoveryClientServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.loadbalancer.support.SimpleObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 新实例预热：通过可变的服务发现模拟扩容
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class SlowStartLoadBalancerTest {
+
+    private static final String SERVICE_ID = "user-service";
+
+    private static final long NOW = 1_800_000_000_000L;
+
+    private static final int ROUNDS = 20_000;
+
+    private final FakeDiscoveryClient discoveryClient = new FakeDiscoveryClient();
+
+    private final AtomicLong millisClock = new AtomicLong(NOW);
+
+    private final LatencyAwareLoadBalancerProperties properties = new LatencyAwareLoadBalancerProperties();
+
+    @Test
+    void instancesInFirstListingAreWarm() {
+        for (int i = 0; i < 4; i++) {
+            discoveryClient.register(instance(i, null));
+        }
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(share(loadBalancer, "instance-" + i)).isBetween(0.2, 0.3);
+        }
+    }
+
+    @Test
+    void newInstanceIsRampedFromFirstSeenTime() {
+        for (int i = 0; i < 4; i++) {
+            discoveryClient.register(instance(i, null));
+        }
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer();
+        share(loadBalancer, "instance-0");
+
+        discoveryClient.register(instance(4, null));
+        //权重 warmupMinWeight=0.1，约 0.1/4.1
+        double cold = share(loadBalancer, "instance-4");
+        millisClock.addAndGet(properties.getWarmupTime() / 2);
+        double halfWarm = share(loadBalancer, "instance-4");
+        millisClock.addAndGet(properties.getWarmupTime() / 2);
+        double warm = share(loadBalancer, "instance-4");
+
+        assertThat(cold).isLessThan(0.05);
+        assertThat(halfWarm).isBetween(cold, warm);
+        assertThat(warm).isBetween(0.15, 0.25);
+    }
+
+    @Test
+    void newInstanceIsRampedWhenScalingOutFromOne() {
+        discoveryClient.register(instance(0, null));
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer();
+        assertThat(share(loadBalancer, "instance-0")).isEqualTo(1D);
+
+        discoveryClient.register(instance(1, null));
+        //权重 warmupMinWeight=0.1，约 0.1/1.1
+        assertThat(share(loadBalancer, "instance-1")).isLessThan(0.15);
+        millisClock.addAndGet(properties.getWarmupTime());
+        assertThat(share(loadBalancer, "instance-1")).isBetween(0.4, 0.6);
+    }
+
+    @Test
+    void startupTimeMetadataTakesPrecedence() {
+        for (int i = 0; i < 4; i++) {
+            discoveryClient.register(instance(i, NOW - TimeUnit.HOURS.toMillis(1)));
+        }
+        //负载均衡器创建时已在列表中，但元数据显示刚刚启动
+        discoveryClient.register(instance(4, NOW));
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer();
+
+        assertThat(share(loadBalancer, "instance-4")).isLessThan(0.05);
+        millisClock.addAndGet(properties.getWarmupTime());
+        assertThat(share(loadBalancer, "instance-4")).isBetween(0.15, 0.25);
+    }
+
+    @Test
+    void warmupCanBeDisabled() {
+        properties.setWarmupTime(0L);
+        for (int i = 0; i < 4; i++) {
+            discoveryClient.register(instance(i, NOW));
+        }
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer();
+
+        assertThat(share(loadBalancer, "instance-0")).isBetween(0.2, 0.3);
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty(LoadBalancerClientFactory.PROPERTY_NAME, SERVICE_ID);
+        return new LatencyAwareLoadBalancer(
+                new SimpleObjectProvider<>(new DiscoveryClientServiceInstanceListSupplier(discoveryClient, environment)),
+                SERVICE_ID, properties, System::nanoTime, millisClock::get);
+    }
+
+    private static double share(LatencyAwareLoadBalancer loadBalancer, String instanceId) {
+        int picks = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            ServiceInstance chosen = loadBalancer.choose(new DefaultRequest<>(new RequestDataContext())).block().getServer();
+            if (instanceId.equals(chosen.getInstanceId())) {
+                picks++;
+            }
+        }
+        return picks / (double) ROUNDS;
+    }
+
+    private static ServiceInstance instance(int index, Long startupTime) {
+        Map<String, String> metadata = startupTime == null
+                ? Map.of() : Map.of("startup-time", String.valueOf(startupTime));
+        return new DefaultServiceInstance("instance-" + index, SERVICE_ID, "10.0.0." + index, 8080, false, metadata);
+    }
+
+    private static class FakeDiscoveryClient implements DiscoveryClient {
+
+        private final List<ServiceInstance> instances = new CopyOnWriteArrayList<>();
+
+        void register(ServiceInstance instance) {
+            instances.add(instance);
+        }
+
+        @Override
+        public String description() {
+            return "fake";
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            return SERVICE_ID.equals(serviceId) ? List.copyOf(instances) : List.of();
+        }
+
+        @Override
+        public List<String> getServices() {
+            return List.of(SERVICE_ID);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.common.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 熔断器状态切换：以可控时钟驱动
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class CircuitBreakerTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000));
+
+    private final List<String> transitions = new CopyOnWriteArrayList<>();
+
+    /**
+     * 失败率50%、慢调用(100ms)率80%、至少10次调用、窗口1秒、打开200ms、半开探测2次
+     */
+    private final CircuitBreaker breaker = new CircuitBreaker(0.5, 0.8, 100 * MILLIS, 10, 1_000 * MILLIS,
+            200 * MILLIS, 2, clock::get, (from, to) -> transitions.add(from + "->" + to));
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        for (int i = 0; i < 9; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure(MILLIS);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensAtFailureRateAndRejectsUntilOpenDurationElapses() {
+        failAndSucceed(5, 5);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        clock.addAndGet(199 * MILLIS);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(transitions).containsExactly("CLOSED->OPEN");
+    }
+
+    @Test
+    void opensAtSlowCallRate() {
+        for (int i = 0; i < 10; i++) {
+            breaker.tryAcquire();
+            breaker.onSuccess(i < 8 ? 150 * MILLIS : MILLIS);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenLimitsProbesAndClosesAfterTheySucceed() {
+        failAndSucceed(10, 0);
+        clock.addAndGet(200 * MILLIS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.onSuccess(MILLIS);
+        breaker.onSuccess(MILLIS);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+        //关闭后窗口已清空，之前的失败不再计入
+        failAndSucceed(4, 6);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopens() {
+        failAndSucceed(10, 0);
+        clock.addAndGet(200 * MILLIS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure(MILLIS);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void ignoredProbeReturnsItsPermit() {
+        failAndSucceed(10, 0);
+        clock.addAndGet(200 * MILLIS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onIgnored();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void oldFailuresSlideOutOfTheWindow() {
+        failAndSucceed(9, 0);
+        clock.addAndGet(1_100 * MILLIS);
+        failAndSucceed(1, 9);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void failAndSucceed(int failures, int successes) {
+        for (int i = 0; i < successes; i++) {
+            breaker.tryAcquire();
+            breaker.onSuccess(MILLIS);
+        }
+        for (int i = 0; i < failures; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure(MILLIS);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.auth;
+
+import com.example.config.AuthWhitelistProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关免鉴权路径匹配器
+ * <p>
+ * 启动时及nacos配置刷新后将 {@link AuthWhitelistProperties#getWhitelist()} 编译为 {@link PathTrie}，
+ * 通过 volatile 引用整体替换，请求路径上只做一次读取与前缀树匹配。
+ * 非法的模式会被跳过并打印警告，不影响其余模式生效。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+public class AuthWhitelist {
+
+    @Resource
+    private AuthWhitelistProperties authWhitelistProperties;
+
+    private volatile PathTrie trie = PathTrie.compile(List.of());
+
+    /**
+     * 当前生效的模式，用于判断刷新后是否需要重新编译
+     */
+    private volatile List<String> patterns = List.of();
+
+    /**
+     * 请求路径是否免鉴权
+     *
+     * @param path 请求路径
+     * @return true=免鉴权
+     */
+    public boolean matches(String path) {
+        return trie.matches(path);
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        List<String> configured = authWhitelistProperties.getWhitelist() == null
+                ? List.of() : List.copyOf(authWhitelistProperties.getWhitelist());
+        if (configured.equals(patterns)) {
+            return;
+        }
+        List<String> accepted = new ArrayList<>(configured.size());
+        for (String pattern : configured) {
+            try {
+                PathTrie.compile(List.of(pattern));
+                accepted.add(pattern);
+            } catch (IllegalArgumentException e) {
+                log.warn("忽略非法的免鉴权路径:{}", e.getMessage());
+            }
+        }
+        trie = PathTrie.compile(accepted);
+        patterns = configured;
+        log.info("免鉴权路径已更新，共{}条", accepted.size());
+    }
+}
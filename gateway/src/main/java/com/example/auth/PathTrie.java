@@ -0,0 +1,151 @@
+package com.example.auth;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按路径段编译的路径前缀树，构建后只读，可被多线程共享
+ * <p>
+ * 匹配时同时推进所有可能的节点，耗时与路径长度成正比，与模式数量无关。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public final class PathTrie {
+
+    private static final String SINGLE = "*";
+
+    private static final String MULTI = "**";
+
+    private final Node root = new Node();
+
+    private PathTrie() {
+    }
+
+    /**
+     * 编译路径模式
+     *
+     * @param patterns 路径模式
+     * @return {@link PathTrie}
+     * @throws IllegalArgumentException {@code **} 不在末尾或路径段中混用通配符时
+     */
+    public static PathTrie compile(Collection<String> patterns) {
+        PathTrie trie = new PathTrie();
+        for (String pattern : patterns) {
+            trie.add(pattern);
+        }
+        return trie;
+    }
+
+    private void add(String pattern) {
+        Node node = root;
+        String[] segments = split(pattern);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (MULTI.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' 只能位于路径末尾: " + pattern);
+                }
+                node.anyRemainder = true;
+                return;
+            }
+            if (SINGLE.equals(segment)) {
+                if (node.anySegment == null) {
+                    node.anySegment = new Node();
+                }
+                node = node.anySegment;
+            } else {
+                if (segment.indexOf('*') >= 0) {
+                    throw new IllegalArgumentException("通配符必须占据整个路径段: " + pattern);
+                }
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.terminal = true;
+    }
+
+    /**
+     * 路径是否匹配任一模式
+     *
+     * @param path 请求路径
+     * @return true=匹配
+     */
+    public boolean matches(String path) {
+        if (root.anyRemainder) {
+            return true;
+        }
+        List<Node> current = new ArrayList<>(2);
+        current.add(root);
+        List<Node> next = new ArrayList<>(2);
+        int length = path.length();
+        int start = 0;
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                String segment = path.substring(start, end);
+                for (Node node : current) {
+                    Node child = node.children.get(segment);
+                    if (child != null) {
+                        if (child.anyRemainder) {
+                            return true;
+                        }
+                        next.add(child);
+                    }
+                    if (node.anySegment != null) {
+                        if (node.anySegment.anyRemainder) {
+                            return true;
+                        }
+                        next.add(node.anySegment);
+                    }
+                }
+                if (next.isEmpty()) {
+                    return false;
+                }
+                List<Node> swap = current;
+                current = next;
+                next = swap;
+                next.clear();
+            }
+            start = end + 1;
+        }
+        for (Node node : current) {
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] split(String pattern) {
+        return Arrays.stream(pattern.trim().split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        /**
+         * 匹配任意一个路径段的子节点
+         */
+        private Node anySegment;
+
+        /**
+         * 此处之后的任意剩余路径(含空)均匹配
+         */
+        private boolean anyRemainder;
+
+        /**
+         * 模式在此结束
+         */
+        private boolean terminal;
+    }
+}
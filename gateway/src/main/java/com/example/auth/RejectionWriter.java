@@ -0,0 +1,110 @@
+package com.example.auth;
+
+import com.alibaba.fastjson.JSON;
+import com.example.common.result.BaseResult;
+import com.example.common.result.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 网关拒绝响应
+ * <p>
+ * 每个 {@link ErrorCode} 的响应体在启动时序列化一次，拒绝时直接包装字节数组写出；
+ * 拒绝日志按周期汇总输出各错误码的次数及最近一次的请求路径，避免攻击流量刷屏。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+public class RejectionWriter {
+
+    /**
+     * 拒绝日志汇总周期
+     */
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final MediaType JSON_UTF8 = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
+
+    private final Map<ErrorCode, byte[]> bodies = new EnumMap<>(ErrorCode.class);
+
+    private final Map<ErrorCode, LongAdder> counters = new EnumMap<>(ErrorCode.class);
+
+    private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+
+    private volatile String lastPath;
+
+    public RejectionWriter() {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            BaseResult<?> result = new BaseResult<>(errorCode);
+            bodies.put(errorCode, JSON.toJSONStringWithDateFormat(result, JSON.DEFFAULT_DATE_FORMAT)
+                    .getBytes(StandardCharsets.UTF_8));
+            counters.put(errorCode, new LongAdder());
+        }
+    }
+
+    /**
+     * 写出拒绝响应
+     *
+     * @param exchange  请求上下文
+     * @param status    http状态码
+     * @param errorCode 错误代码
+     * @return {@link Mono}<{@link Void}>
+     */
+    public Mono<Void> reject(ServerWebExchange exchange, HttpStatus status, ErrorCode errorCode) {
+        record(exchange, errorCode);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(JSON_UTF8);
+        byte[] body = bodies.get(errorCode);
+        headers.setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * 预编码的响应体，不可修改
+     *
+     * @param errorCode 错误代码
+     * @return 响应体字节
+     */
+    public byte[] body(ErrorCode errorCode) {
+        return bodies.get(errorCode);
+    }
+
+    private void record(ServerWebExchange exchange, ErrorCode errorCode) {
+        counters.get(errorCode).increment();
+        lastPath = exchange.getRequest().getPath().value();
+        long now = System.nanoTime();
+        long logAt = nextLogAt.get();
+        if (now - logAt >= 0 && nextLogAt.compareAndSet(logAt, now + LOG_INTERVAL_NANOS)) {
+            logSummary();
+        }
+    }
+
+    private void logSummary() {
+        StringJoiner summary = new StringJoiner(", ");
+        counters.forEach((errorCode, counter) -> {
+            long count = counter.sumThenReset();
+            if (count > 0) {
+                summary.add(errorCode.name() + "=" + count);
+            }
+        });
+        log.warn("网关拒绝请求汇总(最近{}秒):{}，最近一次请求路径:{}",
+                TimeUnit.NANOSECONDS.toSeconds(LOG_INTERVAL_NANOS), summary, lastPath);
+    }
+}
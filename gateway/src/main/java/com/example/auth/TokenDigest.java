@@ -0,0 +1,38 @@
+package com.example.auth;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 令牌摘要，取SHA-256的前128位作为缓存键，避免缓存中长期持有完整令牌字符串
+ *
+ * @param high 高64位
+ * @param low  低64位
+ * @author fxab
+ * @date 2026/10/18
+ */
+public record TokenDigest(long high, long low) {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /**
+     * 计算令牌摘要
+     *
+     * @param token 令牌
+     * @return {@link TokenDigest}
+     */
+    public static TokenDigest of(String token) {
+        MessageDigest messageDigest = SHA_256.get();
+        byte[] digest = messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer buffer = ByteBuffer.wrap(digest);
+        return new TokenDigest(buffer.getLong(), buffer.getLong());
+    }
+}
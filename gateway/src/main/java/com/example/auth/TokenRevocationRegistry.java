@@ -0,0 +1,141 @@
+package com.example.auth;
+
+import com.example.config.TokenRevocationProperties;
+import com.example.jwtutil.config.AuthJwtProperties;
+import com.example.jwtutil.jwtUtil.ParsedToken;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地令牌吊销表
+ * <p>
+ * 用户登出时 jwt-util 会写入 {@code revokeKeyPrefix + userId} 并向 {@code revokeChannel} 广播，
+ * 网关通过响应式 redis 订阅广播并定期全量同步，请求路径上只查询本地内存，不产生网络往返。
+ * 吊销标记存活到登出前签发的 refreshToken 过期(accessToken 有效期的2倍)，本地表的规模等于该时间窗口内的登出用户数。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+public class TokenRevocationRegistry implements InitializingBean, DisposableBean {
+
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Resource
+    private AuthJwtProperties authJwtProperties;
+
+    @Resource
+    private TokenRevocationProperties tokenRevocationProperties;
+
+    /**
+     * 用户id -> 吊销时间戳(毫秒)
+     */
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    private Disposable subscription;
+
+    private Disposable resync;
+
+    /**
+     * 令牌是否签发于用户登出之前
+     *
+     * @param parsedToken 已校验的令牌
+     * @return true=已吊销
+     */
+    public boolean isRevoked(ParsedToken parsedToken) {
+        if (revokedAt.isEmpty() || !Boolean.TRUE.equals(tokenRevocationProperties.getEnabled())) {
+            return false;
+        }
+        Long revokedTime = revokedAt.get(parsedToken.getSubject());
+        return revokedTime != null && parsedToken.getIssuedAt() < revokedTime;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!Boolean.TRUE.equals(tokenRevocationProperties.getEnabled())) {
+            return;
+        }
+        subscription = reactiveStringRedisTemplate.listenToChannel(authJwtProperties.getRevokeChannel())
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(this::onRevokeMessage)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+        resync = Flux.interval(Duration.ZERO, Duration.ofMillis(tokenRevocationProperties.getResyncInterval()))
+                .concatMap(tick -> resync()
+                        .onErrorResume(e -> {
+                            log.warn("同步令牌吊销标记失败", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * 处理登出广播，消息格式为 userId:吊销时间戳
+     */
+    private void onRevokeMessage(String message) {
+        int separator = message.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            revoke(message.substring(0, separator), Long.parseLong(message.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析令牌吊销广播:{}", message);
+        }
+    }
+
+    /**
+     * 全量同步redis中的吊销标记，并清理已超过令牌最长有效期的本地条目
+     */
+    private Mono<Void> resync() {
+        String prefix = authJwtProperties.getRevokeKeyPrefix();
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(1000).build();
+        long expireBefore = System.currentTimeMillis() - authJwtProperties.maxTokenLifetime();
+        revokedAt.values().removeIf(time -> time < expireBefore);
+        return reactiveStringRedisTemplate.scan(options)
+                .buffer(500)
+                .concatMap(keys -> reactiveStringRedisTemplate.opsForValue().multiGet(keys)
+                        .doOnNext(values -> apply(prefix, keys, values)))
+                .then();
+    }
+
+    private void apply(String prefix, List<String> keys, List<String> values) {
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values.get(i);
+            if (value != null) {
+                revoke(keys.get(i).substring(prefix.length()), Long.parseLong(value));
+            }
+        }
+    }
+
+    private void revoke(String userId, long time) {
+        revokedAt.merge(userId, time, Math::max);
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (resync != null) {
+            resync.dispose();
+        }
+    }
+}
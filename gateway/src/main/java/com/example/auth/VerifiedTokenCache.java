@@ -0,0 +1,191 @@
+package com.example.auth;
+
+import com.example.config.TokenCacheProperties;
+import com.example.jwtutil.config.AuthJwtProperties;
+import com.example.jwtutil.jwtUtil.JwtTokenUtil;
+import com.example.jwtutil.jwtUtil.ParsedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已校验令牌缓存
+ * <p>
+ * 以令牌摘要为键缓存令牌的解析结果，命中时跳过JWT解析与HS512签名校验；
+ * 条目过期时间取 min(maxTtl, 令牌exp)，因此不会放行已过期的令牌。
+ * JWT 密钥经 Nacos 轮换后清空两个缓存，旧密钥签发的令牌重新按新密钥校验。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    /**
+     * 缓存指标名称
+     */
+    private static final String CACHE_NAME = "gateway.token.verified";
+
+    /**
+     * 无效令牌缓存指标名称
+     */
+    private static final String INVALID_CACHE_NAME = "gateway.token.invalid";
+
+    @Resource
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Resource
+    private TokenCacheProperties tokenCacheProperties;
+
+    @Resource
+    private AuthJwtProperties authJwtProperties;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    /**
+     * 令牌摘要 -> 令牌解析结果
+     */
+    private Cache<TokenDigest, ParsedToken> cache;
+
+    /**
+     * 令牌摘要 -> 无效标记
+     */
+    private Cache<TokenDigest, Boolean> invalidCache;
+
+    /**
+     * 缓存对应的 JWT 密钥
+     */
+    private volatile String secret;
+
+    /**
+     * 密钥轮换次数，校验期间发生轮换时不写入缓存
+     */
+    private final AtomicLong secretGeneration = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        secret = authJwtProperties.getSecret();
+        long maxTtl = tokenCacheProperties.getMaxTtl();
+        cache = Caffeine.newBuilder()
+                .maximumSize(tokenCacheProperties.getMaxSize())
+                .expireAfter(new Expiry<TokenDigest, ParsedToken>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest key, ParsedToken token, long currentTime) {
+                        long remaining = Math.min(maxTtl, token.getExpiration() - System.currentTimeMillis());
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest key, ParsedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest key, ParsedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        invalidCache = Caffeine.newBuilder()
+                .maximumSize(tokenCacheProperties.getInvalidMaxSize())
+                .expireAfterWrite(tokenCacheProperties.getInvalidTtl(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        meterRegistryProvider.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+            CaffeineCacheMetrics.monitor(registry, invalidCache, INVALID_CACHE_NAME);
+        });
+    }
+
+    /**
+     * 配置刷新后 JWT 密钥发生变化时清空缓存
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        String current = authJwtProperties.getSecret();
+        if (Objects.equals(current, secret)) {
+            return;
+        }
+        secretGeneration.incrementAndGet();
+        secret = current;
+        cache.invalidateAll();
+        invalidCache.invalidateAll();
+        log.info("JWT 密钥已轮换，已清空已校验令牌缓存");
+    }
+
+    /**
+     * 校验令牌，命中缓存时不再解析令牌；近期校验失败过的令牌直接判定为无效
+     * <p>
+     * 签名错误或已过期的令牌无论由谁提交都永远不会再变为有效，因此无效缓存只以令牌摘要为键，不会误判。
+     *
+     * @param token 令牌
+     * @return {@link ParsedToken}，无效或已过期时为 {@link ParsedToken#INVALID}
+     */
+    public ParsedToken verify(String token) {
+        boolean cacheEnabled = Boolean.TRUE.equals(tokenCacheProperties.getEnabled());
+        boolean invalidEnabled = Boolean.TRUE.equals(tokenCacheProperties.getInvalidEnabled());
+        if (!cacheEnabled && !invalidEnabled) {
+            return jwtTokenUtil.parseToken(token);
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        if (cacheEnabled) {
+            ParsedToken cached = cache.getIfPresent(digest);
+            if (cached != null && !cached.isExpired()) {
+                return cached;
+            }
+        }
+        if (invalidEnabled && invalidCache.getIfPresent(digest) != null) {
+            return ParsedToken.INVALID;
+        }
+        long generation = secretGeneration.get();
+        ParsedToken parsedToken = jwtTokenUtil.parseToken(token);
+        if (parsedToken.isValid()) {
+            if (cacheEnabled) {
+                cache.put(digest, parsedToken);
+            }
+        } else if (invalidEnabled) {
+            invalidCache.put(digest, Boolean.TRUE);
+        }
+        //校验期间密钥已轮换，结果可能基于旧密钥，撤回刚写入的条目
+        if (generation != secretGeneration.get()) {
+            cache.invalidate(digest);
+            invalidCache.invalidate(digest);
+        }
+        return parsedToken;
+    }
+
+    /**
+     * 缓存命中、未命中及淘汰统计
+     *
+     * @return {@link CacheStats}
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 无效令牌缓存统计
+     *
+     * @return {@link CacheStats}
+     */
+    public CacheStats invalidStats() {
+        return invalidCache.stats();
+    }
+}
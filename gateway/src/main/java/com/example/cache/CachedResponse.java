@@ -0,0 +1,209 @@
+package com.example.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 完整缓冲的下游响应，构建后不可变，可被多个请求同时写出
+ * <p>
+ * 写出时直接包装同一个字节数组，不复制响应体。
+ * 只保留下游的响应头：网关为第一个请求写入的 CORS 响应头(Access-Control-*、Vary)与 X-Cache 等标记不被记录，
+ * 写出时也不覆盖目标响应上已有的响应头，这些响应头由当前请求自己的过滤器生成。
+ * 下游 Vary 列出的请求头单独记录在 {@link #getVary()}，由调用方判断能否按自己的键共享。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public final class CachedResponse {
+
+    /**
+     * 写出时不复制的逐跳请求头
+     */
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH);
+
+    /**
+     * 网关按请求写入、不属于下游响应的响应头：CorsWebFilter 的 Vary，ResponseCache、SingleFlight 的标记
+     */
+    private static final List<String> PER_REQUEST_HEADERS = List.of(HttpHeaders.VARY, "X-Cache", "X-Single-Flight");
+
+    /**
+     * CorsWebFilter 写入 Vary 的请求头，不属于下游的 Vary
+     */
+    private static final List<String> CORS_VARY = List.of(HttpHeaders.ORIGIN,
+            HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+
+    /**
+     * CorsWebFilter 按请求的 Origin 写入的响应头前缀
+     */
+    private static final String CORS_HEADER_PREFIX = "Access-Control-";
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final HttpStatusCode status;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    private final String etag;
+
+    private final List<String> vary;
+
+    private CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag, List<String> vary) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.etag = etag;
+        this.vary = vary;
+    }
+
+    /**
+     * 由下游响应构建，下游未返回ETag时按响应体摘要生成强校验ETag
+     *
+     * @param status  状态码
+     * @param headers 响应头
+     * @param body    响应体
+     * @return {@link CachedResponse}
+     */
+    public static CachedResponse of(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (isUpstreamHeader(name)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        String etag = copy.getETag();
+        if (etag == null) {
+            etag = '"' + HexFormat.of().formatHex(SHA256.get().digest(body), 0, 16) + '"';
+            copy.setETag(etag);
+        }
+        return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(copy), body, etag, upstreamVary(headers));
+    }
+
+    private static List<String> upstreamVary(HttpHeaders headers) {
+        List<String> vary = new ArrayList<>();
+        for (String name : headers.getVary()) {
+            if (CORS_VARY.stream().noneMatch(name::equalsIgnoreCase)) {
+                vary.add(name);
+            }
+        }
+        return List.copyOf(vary);
+    }
+
+    private static boolean isUpstreamHeader(String name) {
+        return HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)
+                && PER_REQUEST_HEADERS.stream().noneMatch(name::equalsIgnoreCase)
+                && !name.regionMatches(true, 0, CORS_HEADER_PREFIX, 0, CORS_HEADER_PREFIX.length());
+    }
+
+    /**
+     * 写出响应；请求的 If-None-Match 与ETag一致时返回304且不带响应体
+     * <p>
+     * 目标响应上已有的响应头保持不变。
+     *
+     * @param response    响应
+     * @param ifNoneMatch 请求的 If-None-Match
+     * @return {@link Mono}<{@link Void}>
+     */
+    public Mono<Void> writeTo(ServerHttpResponse response, List<String> ifNoneMatch) {
+        HttpHeaders target = response.getHeaders();
+        //响应体长度已知，去掉下游的分块传输头
+        target.remove(HttpHeaders.TRANSFER_ENCODING);
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (!target.containsKey(header.getKey())) {
+                target.put(header.getKey(), header.getValue());
+            }
+        }
+        if (matches(ifNoneMatch)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            target.remove(HttpHeaders.CONTENT_TYPE);
+            target.setContentLength(0);
+            return response.setComplete();
+        }
+        response.setStatusCode(status);
+        target.setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private boolean matches(List<String> ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || etag.equals(tag) || etag.equals(tag.startsWith("W/") ? tag.substring(2) : tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 占用内存的估计值(字节)
+     */
+    public int weight() {
+        int weight = body.length + 64;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            weight += header.getKey().length();
+            for (String value : header.getValue()) {
+                weight += value.length();
+            }
+        }
+        return weight;
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return 下游 Vary 列出的请求头，不含 CorsWebFilter 写入的部分
+     */
+    public List<String> getVary() {
+        return vary;
+    }
+
+    /**
+     * 下游 Vary 列出的请求头是否都在给定的键里，Vary 为 * 时不成立
+     *
+     * @param keyHeaders 参与键的请求头
+     * @return boolean
+     */
+    public boolean variesOnlyBy(List<String> keyHeaders) {
+        for (String name : vary) {
+            if ("*".equals(name) || keyHeaders.stream().noneMatch(name::equalsIgnoreCase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getBodyLength() {
+        return body.length;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 缓冲下游的 200 响应并交给监听方(缓存、合并请求等)，随后由 {@link CachedResponse} 写出
+ * <p>
+ * 其他状态码的响应、Content-Length 或实际大小超过 maxBytes 的响应按原样流式写出，不做缓冲，也不交给监听方。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final List<String> ifNoneMatch;
+
+    private final long maxBytes;
+
+    private final Consumer<CachedResponse> listener;
+
+    /**
+     * @param delegate    原响应
+     * @param ifNoneMatch 请求的 If-None-Match
+     * @param maxBytes    缓冲的上限(字节)，响应体超过时不缓冲
+     * @param listener    捕获到完整响应后的回调，在写出前调用
+     */
+    public CapturingResponseDecorator(ServerHttpResponse delegate, List<String> ifNoneMatch, long maxBytes,
+                                      Consumer<CachedResponse> listener) {
+        super(delegate);
+        this.ifNoneMatch = ifNoneMatch;
+        this.maxBytes = maxBytes;
+        this.listener = listener;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        HttpStatusCode status = getStatusCode();
+        if (status != null && status.value() != HttpStatus.OK.value() || getHeaders().getContentLength() > maxBytes) {
+            return super.writeWith(body);
+        }
+        long[] size = new long[1];
+        //攒到超过上限或响应结束为止；超过上限时已缓冲的部分与其余部分一起流式写出
+        return Flux.from(body)
+                .bufferUntil(buffer -> (size[0] += buffer.readableByteCount()) > maxBytes)
+                .switchOnFirst((first, groups) -> {
+                    if (size[0] > maxBytes) {
+                        return super.writeWith(groups.concatMapIterable(buffers -> buffers));
+                    }
+                    return groups.next()
+                            .defaultIfEmpty(List.of())
+                            .flatMap(buffers -> capture(status == null ? HttpStatus.OK : status, buffers));
+                })
+                .then();
+    }
+
+    private Mono<Void> capture(HttpStatusCode status, List<? extends DataBuffer> buffers) {
+        int length = 0;
+        for (DataBuffer buffer : buffers) {
+            length += buffer.readableByteCount();
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int count = buffer.readableByteCount();
+            buffer.read(bytes, offset, count);
+            offset += count;
+            DataBufferUtils.release(buffer);
+        }
+        CachedResponse captured = CachedResponse.of(status, getHeaders(), bytes);
+        listener.accept(captured);
+        return captured.writeTo(getDelegate(), ifNoneMatch);
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWith(Flux.from(body).flatMapSequential(publisher -> publisher));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.cache;
+
+import com.example.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关响应缓存
+ * <p>
+ * 所有开启 ResponseCache 过滤器的路由共享一个按字节数加权的 Caffeine 缓存，
+ * 每个条目按所属路由配置的TTL过期。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class GatewayResponseCache {
+
+    private static final String CACHE_NAME = "gateway.response";
+
+    @Resource
+    private ResponseCacheProperties responseCacheProperties;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private Cache<Key, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(responseCacheProperties.getMaxSize())
+                .weigher((Key key, Entry entry) -> key.key().length() + entry.response().weight())
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        meterRegistryProvider.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+            Gauge.builder(CACHE_NAME + ".bytes", this, GatewayResponseCache::weightedSize)
+                    .description("响应缓存占用的内存估计(字节)")
+                    .register(registry);
+        });
+    }
+
+    public CachedResponse get(String routeId, String key) {
+        Entry entry = cache.getIfPresent(new Key(routeId, key));
+        return entry == null ? null : entry.response();
+    }
+
+    /**
+     * @return 单条响应体的大小上限(字节)，超过的响应不缓冲也不缓存
+     */
+    public int maxEntrySize() {
+        return responseCacheProperties.getMaxEntrySize();
+    }
+
+    /**
+     * 缓存响应，超过单条大小上限时忽略
+     */
+    public void put(String routeId, String key, CachedResponse response, long ttlNanos) {
+        if (response.getBodyLength() > responseCacheProperties.getMaxEntrySize()) {
+            return;
+        }
+        cache.put(new Key(routeId, key), new Entry(response, ttlNanos));
+    }
+
+    /**
+     * 清除某个路由的全部缓存
+     *
+     * @param routeId 路由id
+     */
+    public void evict(String routeId) {
+        cache.asMap().keySet().removeIf(key -> key.routeId().equals(routeId));
+    }
+
+    /**
+     * 清除全部缓存
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public long weightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    private record Key(String routeId, String key) {
+    }
+
+    private record Entry(CachedResponse response, long ttlNanos) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 相同请求的合并(single-flight)
+ * <p>
+ * 同一个键同时只有一个在途的下游调用(leader)，期间到达的相同请求(follower)等待其结果并共享同一份响应。
+ * leader 只共享完整的 200 响应；失败、非200、被取消时结果为空，follower 各自回源，错误不会扩散给等待方。
+ * 调用结束即从表中移除，不保留任何结果，与响应缓存互相独立。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class SingleFlightGroup {
+
+    private static final String METRIC_PREFIX = "gateway.single-flight";
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    /**
+     * 路由id + 请求键 -> 在途调用
+     */
+    private final Map<Key, Call> calls = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder fallbacks = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        meterRegistryProvider.ifAvailable(registry -> {
+            FunctionCounter.builder(METRIC_PREFIX + ".leaders", leaders, LongAdder::sum)
+                    .description("实际发往下游的合并请求数")
+                    .register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".coalesced", coalesced, LongAdder::sum)
+                    .description("共享了在途调用结果的请求数")
+                    .register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".fallbacks", fallbacks, LongAdder::sum)
+                    .description("等待超时或在途调用未产生可共享结果而自行回源的请求数")
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".in-flight", calls, Map::size)
+                    .description("在途的合并调用数")
+                    .register(registry);
+        });
+    }
+
+    /**
+     * 加入某个键的在途调用，不存在时成为该调用的 leader
+     *
+     * @param routeId 路由id
+     * @param key     请求键
+     * @return {@link Call}，由 {@link Call#isLeader()} 区分角色
+     */
+    public Call join(String routeId, String key) {
+        Key callKey = new Key(routeId, key);
+        Call created = new Call(callKey);
+        Call existing = calls.putIfAbsent(callKey, created);
+        if (existing == null) {
+            leaders.increment();
+            return created;
+        }
+        return existing.follower();
+    }
+
+    /**
+     * 合并统计
+     *
+     * @return {@link Stats}
+     */
+    public Stats stats() {
+        return new Stats(leaders.sum(), coalesced.sum(), fallbacks.sum(), calls.size());
+    }
+
+    private record Key(String routeId, String key) {
+    }
+
+    /**
+     * 一次在途调用；leader 与各 follower 持有的视图共享同一个结果
+     */
+    public final class Call {
+
+        private final Key key;
+
+        private final Sinks.One<CachedResponse> result;
+
+        private final boolean leader;
+
+        private Call(Key key) {
+            this(key, Sinks.one(), true);
+        }
+
+        private Call(Key key, Sinks.One<CachedResponse> result, boolean leader) {
+            this.key = key;
+            this.result = result;
+            this.leader = leader;
+        }
+
+        private Call follower() {
+            return new Call(key, result, false);
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * leader 发布可共享的响应，之后到达的请求不再加入本次调用
+         */
+        public void complete(CachedResponse response) {
+            calls.remove(key, this);
+            result.tryEmitValue(response);
+        }
+
+        /**
+         * leader 结束但没有可共享的响应(失败、非200、被取消)，等待方各自回源；已发布结果时无影响
+         */
+        public void abandon() {
+            calls.remove(key, this);
+            result.tryEmitEmpty();
+        }
+
+        /**
+         * follower 等待 leader 的响应
+         *
+         * @param timeout 等待上限
+         * @return leader 的响应；超时或没有可共享的结果时为空
+         */
+        public Mono<CachedResponse> await(Duration timeout) {
+            return result.asMono()
+                    .timeout(timeout)
+                    .doOnNext(response -> coalesced.increment())
+                    .onErrorResume(TimeoutException.class, e -> Mono.empty())
+                    .switchIfEmpty(Mono.fromRunnable(fallbacks::increment));
+        }
+    }
+
+    /**
+     * 合并统计
+     *
+     * @param leaders   实际发往下游的请求数
+     * @param coalesced 共享结果的请求数
+     * @param fallbacks 自行回源的等待方数
+     * @param inFlight  在途调用数
+     */
+    public record Stats(long leaders, long coalesced, long fallbacks, int inFlight) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关免鉴权路径配置，可在nacos中维护(gateway.auth.whitelist)
+ * <p>
+ * 以路径段为单位匹配：{@code *} 匹配一个路径段，{@code **} 只能位于末尾，匹配零个或多个路径段。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.auth")
+@Component
+public class AuthWhitelistProperties {
+
+    /**
+     * 免鉴权路径
+     */
+    private List<String> whitelist = new ArrayList<>(List.of(
+            "/api/user/login",
+            "/api/user/token/refresh"));
+}
@@ -0,0 +1,80 @@
+package com.example.config;
+
+import com.example.common.resilience.GradientConcurrencyLimit;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关按路由的自适应并发限流配置
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+@Component
+public class ConcurrencyLimitProperties {
+
+    /**
+     * 是否开启自适应并发限流
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 不限流的路由id
+     */
+    private List<String> excludedRoutes = new ArrayList<>();
+
+    /**
+     * 初始并发上限
+     */
+    private Integer initialLimit = 20;
+
+    /**
+     * 最小并发上限
+     */
+    private Integer minLimit = 5;
+
+    /**
+     * 最大并发上限
+     */
+    private Integer maxLimit = 1000;
+
+    /**
+     * RTT容忍倍数，当前RTT不超过长期RTT的该倍数时不收缩上限
+     */
+    private Double tolerance = 1.5;
+
+    /**
+     * 上限平滑系数(0~1)
+     */
+    private Double smoothing = 0.2;
+
+    /**
+     * 长期RTT的EWMA窗口(采样窗口数)
+     */
+    private Integer longWindow = 600;
+
+    /**
+     * 采样窗口长度(毫秒)
+     */
+    private Long window = 100L;
+
+    /**
+     * 窗口内最少采样数，不足时不更新上限
+     */
+    private Integer minWindowSamples = 10;
+
+    /**
+     * @return 限流参数
+     */
+    public GradientConcurrencyLimit.Settings toSettings() {
+        return new GradientConcurrencyLimit.Settings(initialLimit, minLimit, maxLimit, tolerance, smoothing,
+                longWindow, TimeUnit.MILLISECONDS.toNanos(window), minWindowSamples);
+    }
+}
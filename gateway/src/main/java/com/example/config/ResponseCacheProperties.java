@@ -0,0 +1,27 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关响应缓存配置，缓存本身按路由通过 ResponseCache 过滤器开启
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.response-cache")
+@Component
+public class ResponseCacheProperties {
+
+    /**
+     * 所有路由共享的缓存容量上限(字节)
+     */
+    private Long maxSize = 64L * 1024 * 1024;
+
+    /**
+     * 单个响应的大小上限(字节)，超过时不缓存
+     */
+    private Integer maxEntrySize = 1024 * 1024;
+}
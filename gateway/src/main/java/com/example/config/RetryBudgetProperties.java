@@ -0,0 +1,48 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 网关按路由的重试预算配置，对 BudgetedRetry 与 Hedge 过滤器同时生效
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.retry-budget")
+@Component
+public class RetryBudgetProperties {
+
+    /**
+     * 重试(含对冲)次数占请求数的比例上限
+     */
+    private Double ratio = 0.1;
+
+    /**
+     * 低流量时每秒保底可重试次数
+     */
+    private Integer minRetriesPerSecond = 5;
+
+    /**
+     * 统计窗口(毫秒)
+     */
+    private Long window = 10000L;
+
+    /**
+     * 路由id -> 该路由的比例上限，覆盖 ratio
+     */
+    private Map<String, Double> routeRatios = new HashMap<>();
+
+    /**
+     * @param routeId 路由id
+     * @return 该路由的比例上限
+     */
+    public double ratioOf(String routeId) {
+        return routeRatios.getOrDefault(routeId, ratio);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.config;
+
+import com.alibaba.csp.sentinel.adapter.gateway.sc.callback.BlockRequestHandler;
+import com.alibaba.csp.sentinel.adapter.gateway.sc.callback.GatewayCallbackManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeException;
+import com.example.auth.RejectionWriter;
+import com.example.common.result.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 网关sentinel限流配置
+ * <p>
+ * 规则(gw-flow、degrade)通过 spring.cloud.sentinel.datasource 从nacos加载并随配置推送热更新，
+ * 规则判断完全在本地内存中进行。sentinel过滤器排在 AuthFilter 之后(spring.cloud.sentinel.scg.order)，
+ * 因此 gw-flow 规则可以用请求头 userId(由网关校验令牌后写入，客户端无法伪造)做热点参数限流，
+ * 只限制异常账号而不影响其他用户。
+ * <p>
+ * gateway-gw-flow-rules.json 示例(每个用户每秒最多20次请求 user-service 路由，parseStrategy=2 表示按请求头)：
+ * <pre>
+ * [{"resource":"user-service","resourceMode":0,"count":20,"intervalSec":1,
+ *   "paramItem":{"parseStrategy":2,"fieldName":"userId"}}]
+ * </pre>
+ * 免鉴权路径没有 userId 请求头，这类请求共享同一个计数，热点参数规则应只配置在需要鉴权的路由上。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Configuration
+public class SentinelGatewayConfig {
+
+    private static final MediaType JSON_UTF8 = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
+
+    @Resource
+    private RejectionWriter rejectionWriter;
+
+    @PostConstruct
+    public void init() {
+        GatewayCallbackManager.setBlockHandler(new PreEncodedBlockRequestHandler());
+    }
+
+    /**
+     * 使用预编码响应体的限流响应：熔断返回503，其余限流返回429
+     */
+    private class PreEncodedBlockRequestHandler implements BlockRequestHandler {
+
+        @Override
+        public Mono<ServerResponse> handleRequest(ServerWebExchange exchange, Throwable t) {
+            boolean degraded = t instanceof DegradeException;
+            ErrorCode errorCode = degraded ? ErrorCode.SERVICE_OVERLOADED : ErrorCode.TOO_MANY_REQUESTS;
+            return ServerResponse.status(degraded ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS)
+                    .contentType(JSON_UTF8)
+                    .bodyValue(rejectionWriter.body(errorCode));
+        }
+    }
+}
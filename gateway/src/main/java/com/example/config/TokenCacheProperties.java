@@ -0,0 +1,47 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关令牌校验缓存配置
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.auth.token-cache")
+@Component
+public class TokenCacheProperties {
+
+    /**
+     * 是否开启已校验令牌缓存
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 最大缓存条目数
+     */
+    private Long maxSize = 100_000L;
+
+    /**
+     * 缓存最长存活时间(毫秒)，实际过期时间不会晚于令牌自身的exp
+     */
+    private Long maxTtl = 300_000L;
+
+    /**
+     * 是否缓存无效令牌，重复提交同一无效令牌时不再解析
+     */
+    private Boolean invalidEnabled = true;
+
+    /**
+     * 无效令牌缓存最大条目数
+     */
+    private Long invalidMaxSize = 10_000L;
+
+    /**
+     * 无效令牌缓存存活时间(毫秒)
+     */
+    private Long invalidTtl = 60_000L;
+}
@@ -0,0 +1,27 @@
+package com.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关令牌吊销检查配置
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.auth.revocation")
+@Component
+public class TokenRevocationProperties {
+
+    /**
+     * 是否开启登出吊销检查
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 全量同步redis中吊销标记的间隔(毫秒)，兜底订阅断线期间丢失的广播
+     */
+    private Long resyncInterval = 60_000L;
+}
@@ -0,0 +1,41 @@
+package com.example.endpoint;
+
+import com.example.filter.ConcurrencyLimitFilter;
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 自适应并发限流监控端点：/actuator/concurrencylimit
+ * <p>
+ * 输出每个路由当前的并发上限、在途请求数、累计拒绝次数与长期RTT(微秒)。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Endpoint(id = "concurrencylimit")
+public class ConcurrencyLimitEndpoint {
+
+    @Resource
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        Map<String, Object> result = new TreeMap<>();
+        concurrencyLimitFilter.limits().forEach((routeId, limit) -> {
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("limit", limit.getLimit());
+            route.put("inFlight", limit.getInFlight());
+            route.put("rejected", limit.getRejected());
+            route.put("longRttMicros", limit.getLongRttMicros());
+            result.put(routeId, route);
+        });
+        return result;
+    }
+}
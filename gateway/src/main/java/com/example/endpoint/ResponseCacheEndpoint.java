@@ -0,0 +1,52 @@
+package com.example.endpoint;
+
+import com.example.cache.GatewayResponseCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 响应缓存监控端点：/actuator/responsecache
+ * <p>
+ * GET 查看命中率与内存占用；DELETE 清空全部缓存，DELETE /{routeId} 清除某个路由的缓存。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Endpoint(id = "responsecache")
+public class ResponseCacheEndpoint {
+
+    @Resource
+    private GatewayResponseCache gatewayResponseCache;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        CacheStats stats = gatewayResponseCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", gatewayResponseCache.estimatedSize());
+        result.put("bytes", gatewayResponseCache.weightedSize());
+        result.put("hitRate", stats.hitRate());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    @DeleteOperation
+    public void evictAll() {
+        gatewayResponseCache.evictAll();
+    }
+
+    @DeleteOperation
+    public void evict(@Selector String routeId) {
+        gatewayResponseCache.evict(routeId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.endpoint;
+
+import com.example.filter.HedgeGatewayFilterFactory;
+import com.example.retry.RouteRetryBudgets;
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 重试预算与对冲监控端点：/actuator/retrybudget
+ * <p>
+ * 按路由返回窗口内请求数、累计重试与对冲次数、对冲胜出次数、预算耗尽次数及当前对冲延迟。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Endpoint(id = "retrybudget")
+public class RetryBudgetEndpoint {
+
+    @Resource
+    private RouteRetryBudgets routeRetryBudgets;
+
+    @Resource
+    private HedgeGatewayFilterFactory hedgeGatewayFilterFactory;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> budgets() {
+        Map<String, Long> delays = hedgeGatewayFilterFactory.delays();
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        routeRetryBudgets.budgets().forEach((routeId, budget) -> {
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("windowRequests", budget.getRequests());
+            route.put("retries", budget.getRetries());
+            route.put("hedges", budget.getHedges());
+            route.put("hedgeWins", budget.getHedgeWins());
+            route.put("exhausted", budget.getExhausted());
+            route.put("hedgeDelayMillis", delays.getOrDefault(routeId, -1L));
+            result.put(routeId, route);
+        });
+        return result;
+    }
+}
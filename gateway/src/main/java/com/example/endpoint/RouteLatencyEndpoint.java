@@ -0,0 +1,80 @@
+package com.example.endpoint;
+
+import com.example.common.metrics.LatencyHistogram;
+import com.example.filter.RouteLatencyFilter;
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 路由延迟监控端点：/actuator/routelatency
+ * <p>
+ * 输出每个路由整体及各状态类别的 p50/p99/p999(微秒)、平均耗时与吞吐量(次/秒)，
+ * DELETE 请求清空统计重新开始。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Endpoint(id = "routelatency")
+public class RouteLatencyEndpoint {
+
+    private static final String[] STATUS_CLASSES = {"none", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    @Resource
+    private RouteLatencyFilter routeLatencyFilter;
+
+    @ReadOperation
+    public Map<String, Object> routes() {
+        Map<String, Object> result = new TreeMap<>();
+        routeLatencyFilter.histograms().forEach((routeId, byStatus) -> result.put(routeId, describe(byStatus)));
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> route(@Selector String routeId) {
+        LatencyHistogram[] byStatus = routeLatencyFilter.histograms().get(routeId);
+        return byStatus == null ? Map.of() : describe(byStatus);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        routeLatencyFilter.histograms().values().forEach(byStatus -> {
+            for (LatencyHistogram histogram : byStatus) {
+                histogram.reset();
+            }
+        });
+    }
+
+    private Map<String, Object> describe(LatencyHistogram[] byStatus) {
+        Map<String, Object> route = new LinkedHashMap<>();
+        LatencyHistogram.Snapshot total = null;
+        for (int i = 0; i < byStatus.length; i++) {
+            LatencyHistogram.Snapshot snapshot = byStatus[i].snapshot();
+            total = total == null ? snapshot : total.merge(snapshot);
+            if (snapshot.getCount() > 0) {
+                route.put(STATUS_CLASSES[i], summary(snapshot));
+            }
+        }
+        route.put("all", summary(total));
+        return route;
+    }
+
+    private Map<String, Object> summary(LatencyHistogram.Snapshot snapshot) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.getCount());
+        summary.put("throughput", Math.round(snapshot.getThroughput() * 100) / 100D);
+        summary.put("meanMicros", snapshot.getMeanMicros());
+        summary.put("p50Micros", snapshot.percentile(0.5));
+        summary.put("p99Micros", snapshot.percentile(0.99));
+        summary.put("p999Micros", snapshot.percentile(0.999));
+        return summary;
+    }
+}
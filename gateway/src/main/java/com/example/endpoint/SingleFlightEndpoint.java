@@ -0,0 +1,26 @@
+package com.example.endpoint;
+
+import com.example.cache.SingleFlightGroup;
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * 请求合并监控端点：/actuator/singleflight
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Endpoint(id = "singleflight")
+public class SingleFlightEndpoint {
+
+    @Resource
+    private SingleFlightGroup singleFlightGroup;
+
+    @ReadOperation
+    public SingleFlightGroup.Stats stats() {
+        return singleFlightGroup.stats();
+    }
+}
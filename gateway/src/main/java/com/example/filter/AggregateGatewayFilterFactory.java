@@ -0,0 +1,308 @@
+package com.example.filter;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.example.auth.RejectionWriter;
+import com.example.common.auth.AuthHeaderConstant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static com.example.common.result.ErrorCode.SUCCESS;
+import static com.example.common.result.ErrorCode.UPSTREAM_UNAVAILABLE;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.getUriTemplateVariables;
+
+/**
+ * 并行聚合多个下游接口的路由(BFF)
+ * <p>
+ * 路由配置示例：
+ * <pre>
+ * - id: bff-user-home
+ *   uri: no://op
+ *   predicates:
+ *     - Path=/api/bff/home
+ *   filters:
+ *     - name: Aggregate
+ *       args:
+ *         legs[0].name: user
+ *         legs[0].uri: lb://user-service/api/user/profile
+ *         legs[0].timeout: 500ms
+ *         legs[0].required: true
+ *         legs[1].name: order
+ *         legs[1].uri: lb://order-service/api/order/list?userId={userId}
+ *         legs[1].timeout: 300ms
+ * </pre>
+ * 各分支在响应式链路上并发请求，总耗时取决于最慢的分支。uri 中的变量取自 Path 断言的模板变量与查询参数，
+ * 其中 userId、username 只取自网关校验令牌后写入的身份请求头，客户端无法通过查询参数或路径覆盖；
+ * 分支应指向只返回当前用户可见数据的接口，不要指向 /inner 下的服务间接口。分支返回 {@link com.example.common.result.BaseResult} 时取其 date 字段。
+ * 超时或失败的分支在结果中为 null，并在 degraded 中给出原因；必需分支失败时整个请求返回502。
+ * 本过滤器直接写出响应，不再转发到路由的 uri。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+public class AggregateGatewayFilterFactory extends AbstractGatewayFilterFactory<AggregateGatewayFilterFactory.Config> {
+
+    private static final MediaType JSON_UTF8 = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
+
+    /**
+     * 转发给各分支的请求头
+     */
+    private static final List<String> FORWARDED_HEADERS = List.of(
+            HttpHeaders.AUTHORIZATION, AuthHeaderConstant.USER_ID, AuthHeaderConstant.USER_NAME,
+            HttpHeaders.ACCEPT_LANGUAGE);
+
+    @Resource
+    private LoadBalancerClientFactory loadBalancerClientFactory;
+
+    @Resource
+    private RejectionWriter rejectionWriter;
+
+    private WebClient webClient;
+
+    public AggregateGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @PostConstruct
+    public void init() {
+        //分支请求只在超时或失败时降级，不做负载均衡层面的重试
+        webClient = WebClient.builder()
+                .filter(new ReactorLoadBalancerExchangeFilterFunction(loadBalancerClientFactory, List.of()))
+                .build();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<CompiledLeg> legs = config.getLegs().stream().map(CompiledLeg::compile).toList();
+        return (exchange, chain) -> {
+            Map<String, String> variables = variablesOf(exchange);
+            return Flux.fromIterable(legs)
+                    .flatMap(leg -> fetch(exchange.getRequest(), leg, variables), Math.max(legs.size(), 1))
+                    .collectMap(LegResult::name)
+                    .flatMap(results -> write(exchange, legs, results));
+        };
+    }
+
+    private Mono<LegResult> fetch(ServerHttpRequest request, CompiledLeg leg, Map<String, String> variables) {
+        long start = System.nanoTime();
+        return Mono.defer(() -> webClient.get()
+                        .uri(leg.expand(variables))
+                        .headers(headers -> {
+                            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                            FORWARDED_HEADERS.forEach(name -> {
+                                List<String> values = request.getHeaders().get(name);
+                                if (values != null) {
+                                    headers.put(name, values);
+                                }
+                            });
+                        })
+                        //以读超时结束分支请求，负载均衡统计按失败记录而不是被取消
+                        .httpRequest(httpRequest -> {
+                            Object nativeRequest = httpRequest.getNativeRequest();
+                            if (nativeRequest instanceof HttpClientRequest clientRequest) {
+                                clientRequest.responseTimeout(leg.timeout());
+                            }
+                        })
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        //读超时不覆盖建连等阶段，以两倍超时兜底
+                        .timeout(leg.timeout().multipliedBy(2)))
+                .map(body -> LegResult.success(leg.name(), parse(body)))
+                .defaultIfEmpty(LegResult.success(leg.name(), null))
+                .onErrorResume(e -> {
+                    String reason = reasonOf(e);
+                    log.debug("聚合分支{}降级:{}，耗时{}ms", leg.name(), reason,
+                            Duration.ofNanos(System.nanoTime() - start).toMillis());
+                    return Mono.just(LegResult.failure(leg.name(), reason));
+                });
+    }
+
+    /**
+     * 分支返回统一结果时取 date 字段，错误码不为成功时按失败处理
+     */
+    private static Object parse(byte[] body) {
+        Object value = JSON.parse(new String(body, StandardCharsets.UTF_8));
+        if (value instanceof JSONObject object && object.containsKey("code") && object.containsKey("message")) {
+            if (object.getIntValue("code") != SUCCESS.getCode()) {
+                throw new IllegalStateException("code " + object.getIntValue("code"));
+            }
+            return object.get("date");
+        }
+        return value;
+    }
+
+    private static String reasonOf(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return "HTTP " + responseException.getStatusCode().value();
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause.getClass().getSimpleName().contains("Timeout")) {
+                return "timeout";
+            }
+        }
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, List<CompiledLeg> legs, Map<String, LegResult> results) {
+        Map<String, Object> date = new LinkedHashMap<>();
+        Map<String, String> degraded = new LinkedHashMap<>();
+        for (CompiledLeg leg : legs) {
+            LegResult result = results.get(leg.name());
+            if (result.failure() != null) {
+                if (leg.required()) {
+                    return rejectionWriter.reject(exchange, HttpStatus.BAD_GATEWAY, UPSTREAM_UNAVAILABLE);
+                }
+                degraded.put(leg.name(), result.failure());
+            }
+            date.put(leg.name(), result.value());
+        }
+        JSONObject body = new JSONObject(true);
+        body.put("code", SUCCESS.getCode());
+        body.put("date", date);
+        body.put("message", SUCCESS.getMessage());
+        if (!degraded.isEmpty()) {
+            body.put("degraded", degraded);
+        }
+        //降级的分支保留为 null 字段
+        byte[] bytes = JSON.toJSONBytes(body, SerializerFeature.WriteMapNullValue);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(JSON_UTF8);
+        response.getHeaders().setContentLength(bytes.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    /**
+     * 模板变量：查询参数 &lt; Path 断言变量 &lt; 身份请求头
+     * <p>
+     * 身份变量最后写入，请求未携带身份请求头(免鉴权路径)时移除同名变量，不使用客户端传入的值。
+     */
+    static Map<String, String> variablesOf(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        Map<String, String> variables = new HashMap<>();
+        request.getQueryParams().forEach((name, values) -> {
+            if (!values.isEmpty() && values.get(0) != null) {
+                variables.put(name, values.get(0));
+            }
+        });
+        variables.putAll(getUriTemplateVariables(exchange));
+        for (String header : List.of(AuthHeaderConstant.USER_ID, AuthHeaderConstant.USER_NAME)) {
+            String value = request.getHeaders().getFirst(header);
+            if (value != null) {
+                variables.put(header, value);
+            } else {
+                variables.remove(header);
+            }
+        }
+        return variables;
+    }
+
+    /**
+     * 编译后的分支；变量值按 URI 组件严格编码，值中的 /、?、# 等不会改变路径结构，
+     * 整段为 . 或 .. 的变量值无法编码，展开后路径含点段时拒绝，分支按失败降级
+     */
+    record CompiledLeg(String name, UriComponentsBuilder template, Duration timeout, boolean required) {
+
+        static CompiledLeg compile(Leg leg) {
+            UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(leg.getUri()).encode();
+            //与路由一致使用 lb://服务名，负载均衡过滤器按 http 重建实例地址
+            if ("lb".equalsIgnoreCase(builder.build().getScheme())) {
+                builder.scheme("http");
+            }
+            return new CompiledLeg(leg.getName(), builder, leg.getTimeout(), Boolean.TRUE.equals(leg.getRequired()));
+        }
+
+        /**
+         * 展开为已编码的地址，builder 非线程安全，每次复制后展开
+         */
+        URI expand(Map<String, String> variables) {
+            URI uri = template.cloneBuilder().buildAndExpand(variables).toUri();
+            if (!uri.normalize().getRawPath().equals(uri.getRawPath())) {
+                throw new IllegalArgumentException("分支地址含有 . 或 .. 路径段");
+            }
+            return uri;
+        }
+    }
+
+    private record LegResult(String name, Object value, String failure) {
+
+        static LegResult success(String name, Object value) {
+            return new LegResult(name, value, null);
+        }
+
+        static LegResult failure(String name, String reason) {
+            return new LegResult(name, null, reason);
+        }
+    }
+
+    /**
+     * 路由级配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 聚合的分支
+         */
+        private List<Leg> legs = new ArrayList<>();
+    }
+
+    /**
+     * 单个分支
+     */
+    @Data
+    public static class Leg {
+
+        /**
+         * 分支名，即结果中的字段名
+         */
+        private String name;
+
+        /**
+         * 分支地址，支持 {变量}
+         */
+        private String uri;
+
+        /**
+         * 分支超时
+         */
+        private Duration timeout = Duration.ofSeconds(1);
+
+        /**
+         * 是否必需，必需分支失败时整个请求失败
+         */
+        private Boolean required = false;
+    }
+}
@@ -1,25 +1,27 @@
 package com.example.filter;
 
-import com.alibaba.fastjson.JSON;
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
-import com.example.common.result.BaseResult;
+import com.example.auth.AuthWhitelist;
+import com.example.auth.RejectionWriter;
+import com.example.auth.TokenRevocationRegistry;
+import com.example.auth.VerifiedTokenCache;
+import com.example.common.auth.AuthHeaderConstant;
 import com.example.common.result.ErrorCode;
 import com.example.jwtutil.config.AuthJwtProperties;
-import com.example.jwtutil.jwtUtil.JwtTokenUtil;
+import com.example.jwtutil.jwtUtil.ParsedToken;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
-import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
 import static com.example.common.result.ErrorCode.TOKEN_INVALID;
@@ -28,17 +30,24 @@ import static com.example.common.result.ErrorCode.TOKEN_MISSION;
 @Configuration
 @Slf4j
 public class AuthFilter {
-    private static final String AUTH_TOKEN_URL = "/api/user/login";
-    private static final String REFRESH_TOKEN_URL = "/api/user/token/refresh";
-    public static final String USER_ID = "userId";
-    public static final String USER_NAME = "username";
+    public static final String USER_ID = AuthHeaderConstant.USER_ID;
+    public static final String USER_NAME = AuthHeaderConstant.USER_NAME;
     public static final String FROM_SOURCE = "from-source";
 
     @Resource
     private AuthJwtProperties authJwtProperties;
 
     @Resource
-    private JwtTokenUtil jwtTokenUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Resource
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Resource
+    private AuthWhitelist authWhitelist;
+
+    @Resource
+    private RejectionWriter rejectionWriter;
 
     @Bean
     @Order(-101)
@@ -47,11 +56,16 @@ public class AuthFilter {
             //登陆判断
             ServerHttpRequest serverHttpRequest = exchange.getRequest();
             ServerHttpResponse serverHttpResponse = exchange.getResponse();
-            ServerHttpRequest.Builder mutate = serverHttpRequest.mutate();
+            // 移除客户端伪造的身份请求头，只有网关校验令牌后才会写入
+            ServerHttpRequest.Builder mutate = serverHttpRequest.mutate()
+                    .headers(headers -> {
+                        headers.remove(USER_ID);
+                        headers.remove(USER_NAME);
+                    });
             String requestUrl = serverHttpRequest.getURI().getPath();
-            // 跳过对登录请求的 token 检查。因为登录请求是没有 token 的，是来申请 token 的。
-            if(AUTH_TOKEN_URL.equals(requestUrl)||REFRESH_TOKEN_URL.equals(requestUrl)) {
-                return chain.filter(exchange);
+            // 跳过对免鉴权路径(登录、刷新令牌等)的 token 检查，路径列表由 gateway.auth.whitelist 配置
+            if(authWhitelist.matches(requestUrl)) {
+                return chain.filter(exchange.mutate().request(mutate.build()).build());
             }
 
             // 从 HTTP 请求头中获取 JWT 令牌
@@ -59,13 +73,18 @@ public class AuthFilter {
             if (StringUtils.isEmpty(token)) {
                 return unauthorizedResponse(exchange, serverHttpResponse,TOKEN_MISSION);
             }
-            Boolean expired = jwtTokenUtil.isTokenExpired(token);
-            //令牌是否过期或无效
-            if (expired){
+            //令牌是否过期或无效(命中缓存时跳过签名校验，重复提交的无效令牌不再解析)
+            ParsedToken parsedToken = verifiedTokenCache.verify(token);
+            //用户登出前签发的令牌视为无效(仅查询本地吊销表)
+            if (!parsedToken.isValid() || tokenRevocationRegistry.isRevoked(parsedToken)){
                 return unauthorizedResponse(exchange, serverHttpResponse,TOKEN_INVALID);
             }
 
-            //可添加参数
+            //透传已校验的用户身份，下游服务无需再次解析令牌
+            mutate.header(USER_ID, parsedToken.getSubject());
+            if (parsedToken.getUsername() != null) {
+                mutate.header(USER_NAME, URLEncoder.encode(parsedToken.getUsername(), StandardCharsets.UTF_8));
+            }
             return chain.filter(exchange.mutate().request(mutate.build()).build());
         };
     }
@@ -83,7 +102,7 @@ public class AuthFilter {
 
 
     /**
-     * 错误处理
+     * 错误处理(响应体已预编码，日志按周期汇总)
      *
      * @param exchange           交易所
      * @param serverHttpResponse 服务器http响应
@@ -91,14 +110,7 @@ public class AuthFilter {
      * @return {@link Mono}<{@link Void}>
      */
     private Mono<Void> unauthorizedResponse(ServerWebExchange exchange, ServerHttpResponse serverHttpResponse, ErrorCode errorCode) {
-        log.warn("token异常处理,请求路径:{}", exchange.getRequest().getPath());
-        serverHttpResponse.setStatusCode(HttpStatus.UNAUTHORIZED);
-        serverHttpResponse.getHeaders().add("Content-Type", "application/json;charset=UTF-8");
-        BaseResult responseResult = new BaseResult<>(errorCode);
-        DataBuffer dataBuffer = serverHttpResponse.bufferFactory()
-                .wrap(JSON.toJSONStringWithDateFormat(responseResult, JSON.DEFFAULT_DATE_FORMAT)
-                        .getBytes(StandardCharsets.UTF_8));
-        return serverHttpResponse.writeWith(Flux.just(dataBuffer));
+        return rejectionWriter.reject(exchange, HttpStatus.UNAUTHORIZED, errorCode);
     }
 
 }
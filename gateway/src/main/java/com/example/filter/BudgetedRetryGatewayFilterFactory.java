@@ -0,0 +1,96 @@
+package com.example.filter;
+
+import com.example.retry.RouteRetryBudgets;
+import jakarta.annotation.Resource;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 受重试预算约束的重试过滤器
+ * <p>
+ * 参数与内置 Retry 过滤器相同(retries、statuses、series、methods、exceptions、backoff)，例如：
+ * <pre>
+ * filters:
+ *   - name: BudgetedRetry
+ *     args:
+ *       retries: 2
+ *       series: SERVER_ERROR
+ *       methods: GET
+ * </pre>
+ * 每次尝试结束、确定会重试时先向路由的 {@link RouteRetryBudgets} 申请额度，预算耗尽时不再重试，
+ * 直接把本次结果返回给客户端，避免下游故障时重试放大流量。预算参数见 gateway.retry-budget。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class BudgetedRetryGatewayFilterFactory extends RetryGatewayFilterFactory {
+
+    /**
+     * 本次尝试之后因预算耗尽而不再重试
+     */
+    private static final String BUDGET_EXHAUSTED_ATTR = BudgetedRetryGatewayFilterFactory.class.getName()
+            + ".budgetExhausted";
+
+    @Resource
+    private RouteRetryBudgets routeRetryBudgets;
+
+    @Override
+    public GatewayFilter apply(RetryConfig retryConfig) {
+        GatewayFilter retry = super.apply(retryConfig);
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (route == null) {
+                return retry.filter(exchange, chain);
+            }
+            RouteRetryBudgets.RouteBudget budget = routeRetryBudgets.onRequest(exchange, route.getId());
+            //每次尝试(包括重新订阅)结束时、内置重试判断之前决定是否动用预算
+            return retry.filter(exchange, attempt -> chain.filter(attempt)
+                    .doOnSuccess(v -> checkBudget(attempt, retryConfig, budget, null))
+                    .doOnError(e -> checkBudget(attempt, retryConfig, budget, e)));
+        };
+    }
+
+    private void checkBudget(ServerWebExchange exchange, RetryConfig retryConfig,
+                             RouteRetryBudgets.RouteBudget budget, Throwable error) {
+        if (wouldRetry(exchange, retryConfig, error) && !budget.tryRetry()) {
+            exchange.getAttributes().put(BUDGET_EXHAUSTED_ATTR, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 按内置 Retry 的判断规则，本次尝试结束后是否会重试
+     */
+    private static boolean wouldRetry(ServerWebExchange exchange, RetryConfig retryConfig, Throwable error) {
+        //内置过滤器在本次尝试之后才递增次数
+        int iteration = exchange.getAttributeOrDefault(RETRY_ITERATION_KEY, -1) + 1;
+        if (iteration >= retryConfig.getRetries()
+                || !retryConfig.getMethods().contains(exchange.getRequest().getMethod())) {
+            return false;
+        }
+        if (error != null) {
+            return retryConfig.getExceptions().stream().anyMatch(type -> type.isInstance(error)
+                    || (error.getCause() != null && type.isInstance(error.getCause())));
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status == null) {
+            return false;
+        }
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        HttpStatus.Series series = HttpStatus.Series.resolve(status.value());
+        return (resolved != null && retryConfig.getStatuses().contains(resolved))
+                || (series != null && retryConfig.getSeries().contains(series));
+    }
+
+    @Override
+    public boolean exceedsMaxIterations(ServerWebExchange exchange, RetryConfig retryConfig) {
+        return exchange.getAttribute(BUDGET_EXHAUSTED_ATTR) != null || super.exceedsMaxIterations(exchange, retryConfig);
+    }
+}
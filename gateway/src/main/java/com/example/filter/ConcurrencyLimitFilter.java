@@ -0,0 +1,108 @@
+package com.example.filter;
+
+import com.example.auth.RejectionWriter;
+import com.example.common.resilience.GradientConcurrencyLimit;
+import com.example.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.common.result.ErrorCode.SERVICE_OVERLOADED;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 按路由的自适应并发限流
+ * <p>
+ * 每个路由一个 {@link GradientConcurrencyLimit}，超出当前并发上限的请求立即返回503，不在网关或下游排队。
+ * 位于鉴权之后，被鉴权拒绝的请求不占用名额也不参与RTT采样；被取消的请求只释放名额。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 请求由网关本地应答(如响应缓存命中)时设置，此类请求不参与RTT采样
+     */
+    public static final String SERVED_LOCALLY_ATTR = ConcurrencyLimitFilter.class.getName() + ".servedLocally";
+
+    private static final String METRIC_PREFIX = "gateway.concurrency";
+
+    @Resource
+    private ConcurrencyLimitProperties concurrencyLimitProperties;
+
+    @Resource
+    private RejectionWriter rejectionWriter;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    /**
+     * 路由id -> 并发限流器
+     */
+    private final Map<String, GradientConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || !Boolean.TRUE.equals(concurrencyLimitProperties.getEnabled())
+                || concurrencyLimitProperties.getExcludedRoutes().contains(route.getId())) {
+            return chain.filter(exchange);
+        }
+        GradientConcurrencyLimit limit = limits.get(route.getId());
+        if (limit == null) {
+            limit = limits.computeIfAbsent(route.getId(), this::createLimit);
+        }
+        if (!limit.tryAcquire()) {
+            return rejectionWriter.reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, SERVICE_OVERLOADED);
+        }
+        GradientConcurrencyLimit acquired = limit;
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> acquired.release(signal == SignalType.CANCEL
+                        || exchange.getAttribute(SERVED_LOCALLY_ATTR) != null ? 0L : System.nanoTime() - start));
+    }
+
+    private GradientConcurrencyLimit createLimit(String routeId) {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(concurrencyLimitProperties.toSettings());
+        meterRegistryProvider.ifAvailable(registry -> {
+            Gauge.builder(METRIC_PREFIX + ".limit", limit, GradientConcurrencyLimit::getLimit)
+                    .tag("route", routeId).register(registry);
+            Gauge.builder(METRIC_PREFIX + ".inflight", limit, GradientConcurrencyLimit::getInFlight)
+                    .tag("route", routeId).register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".rejected", limit, GradientConcurrencyLimit::getRejected)
+                    .tag("route", routeId).register(registry);
+        });
+        return limit;
+    }
+
+    /**
+     * 各路由的并发限流器，供监控端点读取
+     *
+     * @return 路由id -> 并发限流器
+     */
+    public Map<String, GradientConcurrencyLimit> limits() {
+        return limits;
+    }
+
+    @Override
+    public int getOrder() {
+        //紧随 AuthFilter(-101) 之后
+        return -100;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.filter;
+
+import com.example.common.metrics.LatencyHistogram;
+import com.example.retry.HedgeAttemptExchange;
+import com.example.retry.RouteRetryBudgets;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 幂等GET路由的对冲请求
+ * <p>
+ * 路由配置示例(简写为 Hedge=0.95)：
+ * <pre>
+ * filters:
+ *   - name: Hedge
+ *     args:
+ *       percentile: 0.95
+ *       min-delay: 20ms
+ * </pre>
+ * 原请求超过该路由最近回源耗时的指定分位仍未返回时，再发一次请求，
+ * 由负载均衡重新选择实例(原实例在途数更高，通常会选中另一个实例)，先返回者胜出，另一请求被取消。
+ * 耗时样本只取本过滤器发出且返回 2xx 的请求，不含缓存命中与合并的请求，
+ * 按 latencyWindow 轮换，分位取自当前与上一个窗口，随下游的实际耗时变化。
+ * 对冲请求与重试共用路由的重试预算；样本不足 minSamples 时不对冲。
+ * 两次请求的响应都先缓冲在网关，不适用于流式响应。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+
+    /**
+     * 对冲延迟的重新计算间隔
+     */
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Resource
+    private RouteRetryBudgets routeRetryBudgets;
+
+    /**
+     * 路由id -> 回源耗时样本与对冲延迟
+     */
+    private final Map<String, RouteSamples> routes = new ConcurrentHashMap<>();
+
+    public HedgeGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        //位于 ResponseCache、SingleFlight 之后，只有真正回源的请求才对冲
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            HttpMethod method = exchange.getRequest().getMethod();
+            if (route == null || (method != HttpMethod.GET && method != HttpMethod.HEAD)) {
+                return chain.filter(exchange);
+            }
+            RouteRetryBudgets.RouteBudget budget = routeRetryBudgets.onRequest(exchange, route.getId());
+            RouteSamples samples = routes.computeIfAbsent(route.getId(), key -> new RouteSamples());
+            long delayNanos = delayOf(samples, config);
+            if (delayNanos <= 0) {
+                return timed(samples, exchange, chain);
+            }
+            HedgeAttemptExchange primary = new HedgeAttemptExchange(exchange);
+            HedgeAttemptExchange hedge = new HedgeAttemptExchange(exchange);
+            Mono<HedgeAttemptExchange> first = timed(samples, primary, chain).thenReturn(primary);
+            Mono<HedgeAttemptExchange> second = Mono.delay(Duration.ofNanos(delayNanos))
+                    .filter(tick -> budget.tryHedge())
+                    .flatMap(tick -> timed(samples, hedge, chain).thenReturn(hedge));
+            return Mono.firstWithValue(first, second)
+                    .onErrorMap(NoSuchElementException.class, HedgeGatewayFilterFactory::originalError)
+                    .flatMap(winner -> {
+                        if (winner == hedge) {
+                            budget.hedgeWon();
+                        }
+                        return winner.writeTo(exchange.getResponse());
+                    });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    /**
+     * 两次尝试都失败(或对冲未发出)时，还原第一个真正的异常
+     */
+    private static Throwable originalError(NoSuchElementException e) {
+        if (e.getCause() == null) {
+            return e;
+        }
+        for (Throwable error : Exceptions.unwrapMultiple(e.getCause())) {
+            if (!(error instanceof NoSuchElementException)) {
+                return error;
+            }
+        }
+        return e;
+    }
+
+    /**
+     * 回源一次并记录 2xx 响应的耗时，被取消的落败请求不记录
+     */
+    private static Mono<Void> timed(RouteSamples samples, ServerWebExchange exchange, GatewayFilterChain chain) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return chain.filter(exchange).doOnSuccess(done -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status != null && status.is2xxSuccessful()) {
+                    samples.current.recordNanos(System.nanoTime() - start);
+                }
+            });
+        });
+    }
+
+    /**
+     * 路由当前的对冲延迟，每秒按当前与上一个窗口的样本重新计算一次
+     *
+     * @return 对冲延迟(纳秒)，小于等于0表示不对冲
+     */
+    private static long delayOf(RouteSamples samples, Config config) {
+        long now = System.nanoTime();
+        if (now - samples.computedAt < DELAY_REFRESH_NANOS) {
+            return samples.delayNanos;
+        }
+        synchronized (samples) {
+            if (now - samples.computedAt < DELAY_REFRESH_NANOS) {
+                return samples.delayNanos;
+            }
+            if (now - samples.rotatedAt >= config.getLatencyWindow().toNanos()) {
+                samples.previous = samples.current;
+                samples.current = new LatencyHistogram();
+                samples.rotatedAt = now;
+            }
+            LatencyHistogram.Snapshot snapshot = samples.current.snapshot();
+            if (samples.previous != null) {
+                snapshot = snapshot.merge(samples.previous.snapshot());
+            }
+            long nanos = -1L;
+            if (snapshot.getCount() >= config.getMinSamples()) {
+                nanos = Math.max(TimeUnit.MICROSECONDS.toNanos(snapshot.percentile(config.getPercentile())),
+                        config.getMinDelay().toNanos());
+            }
+            samples.delayNanos = nanos;
+            samples.computedAt = now;
+            return nanos;
+        }
+    }
+
+    /**
+     * 各路由当前的对冲延迟，供监控端点读取
+     *
+     * @return 路由id -> 对冲延迟(毫秒)，-1表示样本不足未对冲
+     */
+    public Map<String, Long> delays() {
+        Map<String, Long> result = new ConcurrentHashMap<>();
+        routes.forEach((routeId, samples) -> result.put(routeId,
+                samples.delayNanos <= 0 ? -1L : TimeUnit.NANOSECONDS.toMillis(samples.delayNanos)));
+        return result;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("percentile");
+    }
+
+    /**
+     * 单个路由的回源耗时样本与对冲延迟
+     */
+    private static final class RouteSamples {
+
+        volatile LatencyHistogram current = new LatencyHistogram();
+
+        volatile LatencyHistogram previous;
+
+        volatile long rotatedAt = System.nanoTime();
+
+        volatile long delayNanos = -1L;
+
+        volatile long computedAt = System.nanoTime() - DELAY_REFRESH_NANOS;
+    }
+
+    /**
+     * 路由级配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 触发对冲的耗时分位(0~1)
+         */
+        private Double percentile = 0.95;
+
+        /**
+         * 对冲延迟下限
+         */
+        private Duration minDelay = Duration.ofMillis(20);
+
+        /**
+         * 计算分位所需的最少 2xx 样本数(当前与上一个窗口合计)
+         */
+        private Long minSamples = 100L;
+
+        /**
+         * 耗时样本的窗口长度，分位取自当前与上一个窗口
+         */
+        private Duration latencyWindow = Duration.ofSeconds(60);
+    }
+}
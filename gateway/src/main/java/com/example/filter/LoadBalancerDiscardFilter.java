@@ -0,0 +1,69 @@
+package com.example.filter;
+
+import jakarta.annotation.Resource;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * 请求被取消时通知负载均衡生命周期
+ * <p>
+ * ReactiveLoadBalancerClientFilter 只在请求成功或失败时回调 onComplete，客户端断开或对冲请求落败被取消时
+ * 实例的在途计数不会释放。本过滤器在其之前执行，取消时以 DISCARD 状态补发回调。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class LoadBalancerDiscardFilter implements GlobalFilter, Ordered {
+
+    @Resource
+    private LoadBalancerClientFactory loadBalancerClientFactory;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).doOnCancel(() -> discard(exchange));
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void discard(ServerWebExchange exchange) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        Set<LoadBalancerLifecycle> lifecycles = LoadBalancerLifecycleValidator.getSupportedLifecycleProcessors(
+                loadBalancerClientFactory.getInstances(lbResponse.getServer().getServiceId(), LoadBalancerLifecycle.class),
+                RequestDataContext.class, ResponseData.class, ServiceInstance.class);
+        if (lifecycles.isEmpty()) {
+            return;
+        }
+        DefaultRequest<RequestDataContext> request = new DefaultRequest<>(
+                new RequestDataContext(new RequestData(exchange.getRequest())));
+        CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context = new CompletionContext<>(
+                CompletionContext.Status.DISCARD, request, lbResponse);
+        lifecycles.forEach(lifecycle -> lifecycle.onComplete(context));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.filter;
+
+import com.example.cache.CachedResponse;
+import com.example.cache.CapturingResponseDecorator;
+import com.example.cache.GatewayResponseCache;
+import com.example.common.auth.AuthHeaderConstant;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 按路由开启的GET响应缓存
+ * <p>
+ * 路由配置示例(简写为 ResponseCache=30s)：
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       ttl: 30s
+ *       headers: userId
+ * </pre>
+ * 缓存键由 路径 + 查询参数 + 选定请求头 组成，默认包含网关写入的 userId，不同用户的响应互不可见。
+ * 只缓存 200 且不带 Set-Cookie、Cache-Control 不为 no-store/private、Vary 只涉及键中请求头、
+ * 响应体不超过 gateway.response-cache.max-entry-size 的响应，超过上限的响应直接流式写出；
+ * 命中时直接写出缓存的字节数组，请求携带匹配的 If-None-Match 时返回304。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    /**
+     * 标记本次请求是否命中缓存的响应头
+     */
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    @Resource
+    private GatewayResponseCache gatewayResponseCache;
+
+    public ResponseCacheGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long ttlNanos = config.getTtl().toNanos();
+        List<String> keyHeaders = List.copyOf(config.getHeaders());
+        //位于写响应过滤器与 SingleFlight 之前，保证装饰后的响应被用于写出、命中缓存的请求不参与合并
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (route == null || request.getMethod() != HttpMethod.GET || isNoCache(request.getHeaders())) {
+                return chain.filter(exchange);
+            }
+            String routeId = route.getId();
+            String key = cacheKey(request, keyHeaders);
+            List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+            CachedResponse cached = gatewayResponseCache.get(routeId, key);
+            if (cached != null) {
+                exchange.getAttributes().put(ConcurrencyLimitFilter.SERVED_LOCALLY_ATTR, Boolean.TRUE);
+                //writeTo 同步复制缓存的响应头，之后再写入本次请求的命中标记
+                Mono<Void> written = cached.writeTo(exchange.getResponse(), ifNoneMatch);
+                exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+                return written;
+            }
+            exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+            CapturingResponseDecorator decorator = new CapturingResponseDecorator(exchange.getResponse(), ifNoneMatch,
+                    gatewayResponseCache.maxEntrySize(), response -> {
+                        if (isCacheable(response, keyHeaders)) {
+                            gatewayResponseCache.put(routeId, key, response, ttlNanos);
+                        }
+                    });
+            return chain.filter(exchange.mutate().response(decorator).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3);
+    }
+
+    static String cacheKey(ServerHttpRequest request, List<String> keyHeaders) {
+        StringBuilder key = new StringBuilder(request.getPath().value());
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        HttpHeaders headers = request.getHeaders();
+        for (String header : keyHeaders) {
+            key.append('\n').append(header).append('=');
+            List<String> values = headers.get(header);
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isNoCache(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
+    }
+
+    private static boolean isCacheable(CachedResponse response, List<String> keyHeaders) {
+        HttpHeaders headers = response.getHeaders();
+        if (response.getStatus().value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || !response.variesOnlyBy(keyHeaders)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    /**
+     * 路由级配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 缓存存活时间
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * 参与缓存键的请求头
+         */
+        private List<String> headers = new ArrayList<>(List.of(AuthHeaderConstant.USER_ID));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.filter;
+
+import com.example.common.metrics.LatencyHistogram;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 按路由、按响应状态类别(1xx~5xx)记录请求耗时
+ * <p>
+ * 位于所有过滤器之前，鉴权拒绝等网关自身的响应同样计入；
+ * 记录时只做一次 map 查找与直方图的原子自增。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class RouteLatencyFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 未匹配到路由的请求
+     */
+    public static final String UNKNOWN_ROUTE = "unknown";
+
+    /**
+     * 路由id -> 按状态类别划分的直方图，下标0为未写出状态码(如客户端取消)
+     */
+    private final Map<String, LatencyHistogram[]> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, System.nanoTime() - start));
+    }
+
+    private void record(ServerWebExchange exchange, long nanos) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? UNKNOWN_ROUTE : route.getId();
+        LatencyHistogram[] byStatus = histograms.get(routeId);
+        if (byStatus == null) {
+            byStatus = histograms.computeIfAbsent(routeId, key -> newHistograms());
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        int statusClass = status == null ? 0 : status.value() / 100;
+        byStatus[statusClass >= 1 && statusClass <= 5 ? statusClass : 0].recordNanos(nanos);
+    }
+
+    private static LatencyHistogram[] newHistograms() {
+        LatencyHistogram[] byStatus = new LatencyHistogram[6];
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new LatencyHistogram();
+        }
+        return byStatus;
+    }
+
+    /**
+     * 各路由的直方图，供监控端点读取
+     *
+     * @return 路由id -> 按状态类别划分的直方图
+     */
+    public Map<String, LatencyHistogram[]> histograms() {
+        return histograms;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.filter;
+
+import com.example.cache.CachedResponse;
+import com.example.cache.CapturingResponseDecorator;
+import com.example.cache.SingleFlightGroup;
+import com.example.common.auth.AuthHeaderConstant;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 按路由开启的相同GET请求合并
+ * <p>
+ * 路由配置示例(简写为 SingleFlight=3s)：
+ * <pre>
+ * filters:
+ *   - name: SingleFlight
+ *     args:
+ *       timeout: 3s
+ *       headers: userId
+ * </pre>
+ * 请求键与 ResponseCache 相同(路径 + 查询参数 + 选定请求头)。同一时刻相同的请求只有第一个发往下游，
+ * 其余请求等待其 200 响应并各自写出；等待超时、第一个请求失败或其响应不可共享(带 Set-Cookie、
+ * Vary 涉及键之外的请求头、响应体超过 maxBodySize)时，等待方自行回源。
+ * 共享的只有下游响应头与响应体，CORS 响应头等按各自的请求生成。
+ * 与 ResponseCache 同时使用时先查缓存，未命中的请求再合并。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class SingleFlightGatewayFilterFactory extends AbstractGatewayFilterFactory<SingleFlightGatewayFilterFactory.Config> {
+
+    /**
+     * 标记响应来自合并请求的响应头
+     */
+    public static final String SINGLE_FLIGHT_HEADER = "X-Single-Flight";
+
+    @Resource
+    private SingleFlightGroup singleFlightGroup;
+
+    public SingleFlightGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration timeout = config.getTimeout();
+        List<String> keyHeaders = List.copyOf(config.getHeaders());
+        long maxBodySize = config.getMaxBodySize().toBytes();
+        //位于 ResponseCache 之后、Hedge 与写响应过滤器之前，只有 leader 会被对冲
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (route == null || request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+            SingleFlightGroup.Call call = singleFlightGroup.join(route.getId(),
+                    ResponseCacheGatewayFilterFactory.cacheKey(request, keyHeaders));
+            if (call.isLeader()) {
+                CapturingResponseDecorator decorator = new CapturingResponseDecorator(exchange.getResponse(),
+                        ifNoneMatch, maxBodySize, response -> {
+                            if (isShareable(response, keyHeaders)) {
+                                call.complete(response);
+                            } else {
+                                call.abandon();
+                            }
+                        });
+                return chain.filter(exchange.mutate().response(decorator).build())
+                        .doFinally(signal -> call.abandon());
+            }
+            return call.await(timeout)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(shared -> {
+                        if (shared.isEmpty()) {
+                            return chain.filter(exchange);
+                        }
+                        exchange.getAttributes().put(ConcurrencyLimitFilter.SERVED_LOCALLY_ATTR, Boolean.TRUE);
+                        exchange.getResponse().getHeaders().set(SINGLE_FLIGHT_HEADER, "COALESCED");
+                        return shared.get().writeTo(exchange.getResponse(), ifNoneMatch);
+                    });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2);
+    }
+
+    /**
+     * 带 Set-Cookie 的响应属于单个客户端，Vary 涉及键之外请求头的响应可能因请求而异，都不共享
+     */
+    private static boolean isShareable(CachedResponse response, List<String> keyHeaders) {
+        return !response.getHeaders().containsKey(HttpHeaders.SET_COOKIE) && response.variesOnlyBy(keyHeaders);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeout");
+    }
+
+    /**
+     * 路由级配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 等待在途请求的上限，超时后自行回源
+         */
+        private Duration timeout = Duration.ofSeconds(3);
+
+        /**
+         * 参与请求键的请求头
+         */
+        private List<String> headers = new ArrayList<>(List.of(AuthHeaderConstant.USER_ID));
+
+        /**
+         * 可共享响应体的上限，超过时 leader 直接流式写出，等待方自行回源
+         */
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.retry;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 对冲请求中的一次尝试
+ * <p>
+ * 同一请求的多次尝试并发执行，路由过程会写入交换属性与响应，因此每次尝试持有属性的副本，
+ * 响应只缓冲在本地，胜出后才由 {@link #writeTo} 写入真正的响应。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class HedgeAttemptExchange extends ServerWebExchangeDecorator {
+
+    private final Map<String, Object> attributes;
+
+    private final AttemptResponse response;
+
+    public HedgeAttemptExchange(ServerWebExchange delegate) {
+        super(delegate);
+        this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+        this.response = new AttemptResponse(delegate.getResponse());
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public ServerHttpResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * 把本次尝试缓冲的响应写入目标响应
+     *
+     * @param target 目标响应
+     * @return {@link Mono}<{@link Void}>
+     */
+    public Mono<Void> writeTo(ServerHttpResponse target) {
+        return response.writeTo(target);
+    }
+
+    /**
+     * 只在本地记录状态码、响应头与响应体的响应
+     */
+    private static final class AttemptResponse extends ServerHttpResponseDecorator {
+
+        /**
+         * 写出时由目标响应重新计算的逐跳响应头
+         */
+        private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+                HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH);
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private final MultiValueMap<String, ResponseCookie> cookies = new LinkedMultiValueMap<>();
+
+        private volatile HttpStatusCode status;
+
+        private volatile byte[] body;
+
+        private AttemptResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public boolean setRawStatusCode(Integer value) {
+            return setStatusCode(value == null ? null : HttpStatusCode.valueOf(value));
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Integer getRawStatusCode() {
+            return status == null ? null : status.value();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public MultiValueMap<String, ResponseCookie> getCookies() {
+            return cookies;
+        }
+
+        @Override
+        public void addCookie(ResponseCookie cookie) {
+            cookies.add(cookie.getName(), cookie);
+        }
+
+        @Override
+        public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(Flux.from(body))
+                    .doOnNext(buffer -> {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        DataBufferUtils.release(buffer);
+                        this.body = bytes;
+                    })
+                    .then();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(publisher -> publisher));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return Mono.empty();
+        }
+
+        private Mono<Void> writeTo(ServerHttpResponse target) {
+            if (status != null) {
+                target.setStatusCode(status);
+            }
+            HttpHeaders targetHeaders = target.getHeaders();
+            headers.forEach((name, values) -> {
+                if (HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    targetHeaders.put(name, values);
+                }
+            });
+            cookies.values().forEach(values -> values.forEach(target::addCookie));
+            byte[] bytes = body;
+            if (bytes == null) {
+                return target.setComplete();
+            }
+            targetHeaders.setContentLength(bytes.length);
+            return target.writeWith(Mono.just(target.bufferFactory().wrap(bytes)));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.retry;
+
+import com.example.common.resilience.RetryBudget;
+import com.example.config.RetryBudgetProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 各路由的重试预算与重试、对冲统计
+ * <p>
+ * 同一路由上的 BudgetedRetry 与 Hedge 过滤器共享一份预算；nacos配置刷新后按新参数重建预算，累计统计保留。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class RouteRetryBudgets {
+
+    private static final String COUNTED_ATTR = RouteRetryBudgets.class.getName() + ".counted";
+
+    @Resource
+    private RetryBudgetProperties retryBudgetProperties;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    /**
+     * 路由id -> 预算与统计
+     */
+    private final Map<String, RouteBudget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * 路由的预算与统计
+     *
+     * @param routeId 路由id
+     * @return {@link RouteBudget}
+     */
+    public RouteBudget of(String routeId) {
+        RouteBudget budget = budgets.get(routeId);
+        return budget != null ? budget : budgets.computeIfAbsent(routeId, this::create);
+    }
+
+    /**
+     * 为本次请求存入重试额度，同一请求经过多个过滤器时只计一次
+     *
+     * @param exchange 请求
+     * @param routeId  路由id
+     * @return 路由的预算与统计
+     */
+    public RouteBudget onRequest(ServerWebExchange exchange, String routeId) {
+        RouteBudget budget = of(routeId);
+        if (exchange.getAttributes().putIfAbsent(COUNTED_ATTR, Boolean.TRUE) == null) {
+            budget.budget.onRequest();
+        }
+        return budget;
+    }
+
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        budgets.forEach((routeId, budget) -> budget.replace(newBudget(routeId)));
+    }
+
+    private RouteBudget create(String routeId) {
+        RouteBudget budget = new RouteBudget(newBudget(routeId));
+        meterRegistryProvider.ifAvailable(registry -> {
+            FunctionCounter.builder("gateway.retry.attempts", budget.retries, LongAdder::sum)
+                    .description("预算内发出的重试次数")
+                    .tag("route", routeId).register(registry);
+            FunctionCounter.builder("gateway.retry.budget.exhausted", budget, RouteBudget::getExhausted)
+                    .description("因预算耗尽而放弃的重试与对冲次数")
+                    .tag("route", routeId).register(registry);
+            FunctionCounter.builder("gateway.hedge.sent", budget.hedges, LongAdder::sum)
+                    .description("发出的对冲请求数")
+                    .tag("route", routeId).register(registry);
+            FunctionCounter.builder("gateway.hedge.wins", budget.hedgeWins, LongAdder::sum)
+                    .description("对冲请求先于原请求返回的次数")
+                    .tag("route", routeId).register(registry);
+        });
+        return budget;
+    }
+
+    private RetryBudget newBudget(String routeId) {
+        return new RetryBudget(retryBudgetProperties.ratioOf(routeId), retryBudgetProperties.getMinRetriesPerSecond(),
+                TimeUnit.MILLISECONDS.toNanos(retryBudgetProperties.getWindow()));
+    }
+
+    /**
+     * 各路由的预算与统计，供监控端点读取
+     *
+     * @return 路由id -> 预算与统计
+     */
+    public Map<String, RouteBudget> budgets() {
+        return budgets;
+    }
+
+    /**
+     * 单个路由的预算与统计
+     */
+    public static final class RouteBudget {
+
+        private volatile RetryBudget budget;
+
+        /**
+         * 配置刷新前的预算累计放弃次数
+         */
+        private final LongAdder previousExhausted = new LongAdder();
+
+        private final LongAdder retries = new LongAdder();
+
+        private final LongAdder hedges = new LongAdder();
+
+        private final LongAdder hedgeWins = new LongAdder();
+
+        private RouteBudget(RetryBudget budget) {
+            this.budget = budget;
+        }
+
+        private synchronized void replace(RetryBudget newBudget) {
+            previousExhausted.add(budget.getExhausted());
+            budget = newBudget;
+        }
+
+        /**
+         * 尝试使用一次重试额度
+         *
+         * @return true=预算内
+         */
+        public boolean tryRetry() {
+            if (budget.tryAcquire()) {
+                retries.increment();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 尝试使用一次对冲额度
+         *
+         * @return true=预算内
+         */
+        public boolean tryHedge() {
+            if (budget.tryAcquire()) {
+                hedges.increment();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 记录一次对冲请求胜出
+         */
+        public void hedgeWon() {
+            hedgeWins.increment();
+        }
+
+        public long getRequests() {
+            return budget.getRequests();
+        }
+
+        public long getRetries() {
+            return retries.sum();
+        }
+
+        public long getHedges() {
+            return hedges.sum();
+        }
+
+        public long getHedgeWins() {
+            return hedgeWins.sum();
+        }
+
+        public long getExhausted() {
+            return previousExhausted.sum() + budget.getExhausted();
+        }
+    }
+}
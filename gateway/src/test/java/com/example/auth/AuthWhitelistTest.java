@@ -0,0 +1,68 @@
+package com.example.auth;
+
+import com.example.config.AuthWhitelistProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 免鉴权路径的编译与刷新
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class AuthWhitelistTest {
+
+    private final AuthWhitelistProperties properties = new AuthWhitelistProperties();
+
+    private final AuthWhitelist whitelist = new AuthWhitelist();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(whitelist, "authWhitelistProperties", properties);
+    }
+
+    @Test
+    void defaultsWhitelistLoginAndRefreshOnly() {
+        whitelist.init();
+
+        assertThat(whitelist.matches("/api/user/login")).isTrue();
+        assertThat(whitelist.matches("/api/user/token/refresh")).isTrue();
+        assertThat(whitelist.matches("/api/user/inner/get/id")).isFalse();
+        assertThat(whitelist.matches("/api/order/add")).isFalse();
+    }
+
+    @Test
+    void skipsInvalidPatternsAndKeepsTheRest() {
+        properties.setWhitelist(List.of("/api/**/login", "/api/doc/**"));
+
+        whitelist.init();
+
+        assertThat(whitelist.matches("/api/doc/index.html")).isTrue();
+        assertThat(whitelist.matches("/api/user/login")).isFalse();
+    }
+
+    @Test
+    void refreshReplacesPatterns() {
+        whitelist.init();
+        properties.setWhitelist(List.of("/api/doc/**"));
+
+        whitelist.onRefresh();
+
+        assertThat(whitelist.matches("/api/doc/index.html")).isTrue();
+        assertThat(whitelist.matches("/api/user/login")).isFalse();
+    }
+
+    @Test
+    void emptyWhitelistMatchesNothing() {
+        properties.setWhitelist(null);
+
+        whitelist.init();
+
+        assertThat(whitelist.matches("/api/user/login")).isFalse();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 路径前缀树匹配
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class PathTrieTest {
+
+    private final PathTrie trie = PathTrie.compile(List.of(
+            "/api/user/login",
+            "/api/user/token/refresh",
+            "/api/*/doc",
+            "/api/public/**"));
+
+    @Test
+    void matchesExactPath() {
+        assertThat(trie.matches("/api/user/login")).isTrue();
+        assertThat(trie.matches("/api/user/token/refresh")).isTrue();
+        assertThat(trie.matches("/api/user/logout")).isFalse();
+        assertThat(trie.matches("/api/user/Login")).isFalse();
+    }
+
+    @Test
+    void prefixOfWhitelistedPathIsNotWhitelisted() {
+        assertThat(trie.matches("/api/user")).isFalse();
+        assertThat(trie.matches("/api/user/token")).isFalse();
+        assertThat(trie.matches("/")).isFalse();
+        assertThat(trie.matches("")).isFalse();
+    }
+
+    @Test
+    void whitelistedPathIsNotAPrefix() {
+        assertThat(trie.matches("/api/user/login/admin")).isFalse();
+        assertThat(trie.matches("/api/user/loginx")).isFalse();
+    }
+
+    @Test
+    void singleWildcardMatchesExactlyOneSegment() {
+        assertThat(trie.matches("/api/order/doc")).isTrue();
+        assertThat(trie.matches("/api/doc")).isFalse();
+        assertThat(trie.matches("/api/order/v1/doc")).isFalse();
+    }
+
+    @Test
+    void trailingWildcardMatchesAnyRemainder() {
+        assertThat(trie.matches("/api/public")).isTrue();
+        assertThat(trie.matches("/api/public/a")).isTrue();
+        assertThat(trie.matches("/api/public/a/b/c")).isTrue();
+        assertThat(trie.matches("/api/publicity")).isFalse();
+    }
+
+    @Test
+    void ignoresTrailingSlashAndEmptySegments() {
+        assertThat(trie.matches("/api/user/login/")).isTrue();
+        assertThat(trie.matches("//api//user///login")).isTrue();
+        assertThat(trie.matches("api/user/login")).isTrue();
+        assertThat(PathTrie.compile(List.of("/api/user/login/")).matches("/api/user/login")).isTrue();
+        assertThat(trie.matches("/api/user//")).isFalse();
+    }
+
+    @Test
+    void emptyTrieMatchesNothingAndRootWildcardMatchesEverything() {
+        assertThat(PathTrie.compile(List.of()).matches("/api/user/login")).isFalse();
+        assertThat(PathTrie.compile(List.of("/**")).matches("/any/path")).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidPatterns() {
+        assertThatThrownBy(() -> PathTrie.compile(List.of("/api/**/login")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PathTrie.compile(List.of("/api/user*")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.filter;
+
+import com.example.common.auth.AuthHeaderConstant;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.putUriTemplateVariables;
+
+/**
+ * 聚合分支的模板变量：身份变量只取自网关写入的请求头
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class AggregateGatewayFilterFactoryTest {
+
+    @Test
+    void identityHeadersOverrideQueryAndPathVariables() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("http://gateway/api/bff/home/2?userId=2&username=bob&page=3")
+                        .header(AuthHeaderConstant.USER_ID, "1")
+                        .header(AuthHeaderConstant.USER_NAME, "alice"));
+        putUriTemplateVariables(exchange, Map.of(AuthHeaderConstant.USER_ID, "2", "shop", "7"));
+
+        Map<String, String> variables = AggregateGatewayFilterFactory.variablesOf(exchange);
+
+        assertThat(variables).containsEntry(AuthHeaderConstant.USER_ID, "1")
+                .containsEntry(AuthHeaderConstant.USER_NAME, "alice")
+                .containsEntry("page", "3")
+                .containsEntry("shop", "7");
+    }
+
+    @Test
+    void dropsClientIdentityWithoutGatewayHeaders() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("http://gateway/api/bff/home?userId=2&username=bob&page=3"));
+        putUriTemplateVariables(exchange, Map.of(AuthHeaderConstant.USER_ID, "2"));
+
+        Map<String, String> variables = AggregateGatewayFilterFactory.variablesOf(exchange);
+
+        assertThat(variables).doesNotContainKeys(AuthHeaderConstant.USER_ID, AuthHeaderConstant.USER_NAME)
+                .containsEntry("page", "3");
+    }
+
+    @Test
+    void encodesSlashAndDotSegmentsInVariables() {
+        AggregateGatewayFilterFactory.Leg leg = new AggregateGatewayFilterFactory.Leg();
+        leg.setName("user");
+        leg.setUri("lb://user-service/api/user/{id}?name={name}");
+        AggregateGatewayFilterFactory.CompiledLeg compiled = AggregateGatewayFilterFactory.CompiledLeg.compile(leg);
+
+        URI uri = compiled.expand(Map.of("id", "../inner/get/ids", "name", "a&b=c d"));
+
+        assertThat(uri.toString()).isEqualTo("http://user-service/api/user/..%2Finner%2Fget%2Fids?name=a%26b%3Dc%20d");
+        assertThat(uri.getRawPath()).isEqualTo("/api/user/..%2Finner%2Fget%2Fids");
+        assertThatIllegalArgumentException().isThrownBy(() -> compiled.expand(Map.of("id", "..", "name", "x")));
+        assertThatIllegalArgumentException().isThrownBy(() -> compiled.expand(Map.of("id", ".", "name", "x")));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.filter;
+
+import com.example.cache.GatewayResponseCache;
+import com.example.config.CorsConfig;
+import com.example.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 响应缓存命中时的响应头：命中标记与 CORS 响应头按当前请求生成；超过单条上限或 Vary 涉及键外请求头的响应不缓存
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final String ORIGIN_A = "https://a.example.com";
+
+    private static final String ORIGIN_B = "https://b.example.com";
+
+    private static final Route ROUTE = Route.async().id("user").uri("lb://user-service")
+            .predicate(exchange -> true).build();
+
+    private final CorsWebFilter corsWebFilter = new CorsConfig().corsFilter();
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+
+    private List<String> upstreamBody = List.of("{\"id\":1}");
+
+    private String upstreamVary;
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        GatewayResponseCache cache = new GatewayResponseCache();
+        ReflectionTestUtils.setField(cache, "responseCacheProperties", properties);
+        ReflectionTestUtils.setField(cache, "meterRegistryProvider",
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        cache.init();
+        ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory();
+        ReflectionTestUtils.setField(factory, "gatewayResponseCache", cache);
+        filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config());
+    }
+
+    @Test
+    void hitKeepsItsOwnCacheStatusAndOrigin() {
+        MockServerWebExchange first = exchange(ORIGIN_A, null);
+        run(first);
+        MockServerWebExchange second = exchange(ORIGIN_B, null);
+        run(second);
+
+        assertThat(upstreamCalls).hasValue(1);
+        HttpHeaders missHeaders = first.getResponse().getHeaders();
+        assertThat(missHeaders.getFirst(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+        assertThat(missHeaders.getAccessControlAllowOrigin()).isEqualTo(ORIGIN_A);
+
+        HttpHeaders hitHeaders = second.getResponse().getHeaders();
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(hitHeaders.get(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER)).containsExactly("HIT");
+        assertThat(hitHeaders.get(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).containsExactly(ORIGIN_B);
+        assertThat(hitHeaders.get(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS)).containsExactly("true");
+        assertThat(hitHeaders.getVary()).doesNotHaveDuplicates();
+        assertThat(hitHeaders.getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(hitHeaders.getFirst("X-Upstream")).isEqualTo("user-service");
+        assertThat(hitHeaders.getETag()).isEqualTo(missHeaders.getETag());
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void notModifiedHitKeepsItsOwnCacheStatusAndOrigin() {
+        MockServerWebExchange first = exchange(ORIGIN_A, null);
+        run(first);
+        String etag = first.getResponse().getHeaders().getETag();
+        MockServerWebExchange second = exchange(ORIGIN_B, etag);
+        run(second);
+
+        HttpHeaders hitHeaders = second.getResponse().getHeaders();
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(hitHeaders.get(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER)).containsExactly("HIT");
+        assertThat(hitHeaders.get(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).containsExactly(ORIGIN_B);
+    }
+
+    @Test
+    void responseOverMaxEntrySizeStreamsThroughUncached() {
+        properties.setMaxEntrySize(8);
+        upstreamBody = List.of("{\"id\":", "12345", "}");
+        MockServerWebExchange first = exchange(ORIGIN_A, null);
+        run(first);
+        MockServerWebExchange second = exchange(ORIGIN_A, null);
+        run(second);
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":12345}");
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER))
+                .isEqualTo("MISS");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":12345}");
+    }
+
+    @Test
+    void upstreamVaryOutsideKeyIsNotCached() {
+        upstreamVary = HttpHeaders.ACCEPT_LANGUAGE;
+        MockServerWebExchange first = exchange(ORIGIN_A, null);
+        run(first);
+        MockServerWebExchange second = exchange(ORIGIN_A, null);
+        run(second);
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER))
+                .isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getVary()).contains(HttpHeaders.ACCEPT_LANGUAGE);
+    }
+
+    private static MockServerWebExchange exchange(String origin, String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("http://gateway/api/user/get")
+                .header(HttpHeaders.ORIGIN, origin);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private void run(MockServerWebExchange exchange) {
+        corsWebFilter.filter(exchange, corsExchange -> filter.filter(corsExchange, upstream())).block();
+    }
+
+    private GatewayFilterChain upstream() {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().set("X-Upstream", "user-service");
+            if (upstreamVary != null) {
+                response.getHeaders().add(HttpHeaders.VARY, upstreamVary);
+            }
+            return response.writeWith(Flux.fromIterable(upstreamBody)
+                    .map(chunk -> response.bufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+}
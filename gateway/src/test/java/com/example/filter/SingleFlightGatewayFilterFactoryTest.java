@@ -0,0 +1,123 @@
+package com.example.filter;
+
+import com.example.cache.SingleFlightGroup;
+import com.example.config.CorsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 合并请求共享响应时的响应头：follower 的 CORS 响应头按自己的 Origin 生成
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class SingleFlightGatewayFilterFactoryTest {
+
+    private static final String ORIGIN_A = "https://a.example.com";
+
+    private static final String ORIGIN_B = "https://b.example.com";
+
+    private static final Route ROUTE = Route.async().id("user").uri("lb://user-service")
+            .predicate(exchange -> true).build();
+
+    private final CorsWebFilter corsWebFilter = new CorsConfig().corsFilter();
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private final Sinks.Empty<Void> release = Sinks.empty();
+
+    private SingleFlightGroup group;
+
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        group = new SingleFlightGroup();
+        ReflectionTestUtils.setField(group, "meterRegistryProvider",
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        group.init();
+        SingleFlightGatewayFilterFactory factory = new SingleFlightGatewayFilterFactory();
+        ReflectionTestUtils.setField(factory, "singleFlightGroup", group);
+        filter = factory.apply(new SingleFlightGatewayFilterFactory.Config());
+    }
+
+    @Test
+    void followerFromAnotherOriginKeepsItsOwnCorsHeaders() {
+        MockServerWebExchange leader = exchange(ORIGIN_A);
+        MockServerWebExchange follower = exchange(ORIGIN_B);
+
+        CompletableFuture<Void> leaderDone = run(leader);
+        CompletableFuture<Void> followerDone = run(follower);
+        release.tryEmitEmpty();
+        leaderDone.join();
+        followerDone.join();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(group.stats().coalesced()).isEqualTo(1);
+        HttpHeaders leaderHeaders = leader.getResponse().getHeaders();
+        assertThat(leaderHeaders.get(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).containsExactly(ORIGIN_A);
+        assertThat(leaderHeaders.containsKey(SingleFlightGatewayFilterFactory.SINGLE_FLIGHT_HEADER)).isFalse();
+
+        HttpHeaders followerHeaders = follower.getResponse().getHeaders();
+        assertThat(follower.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(followerHeaders.get(SingleFlightGatewayFilterFactory.SINGLE_FLIGHT_HEADER))
+                .containsExactly("COALESCED");
+        assertThat(followerHeaders.get(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).containsExactly(ORIGIN_B);
+        assertThat(followerHeaders.get(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS)).containsExactly("true");
+        assertThat(followerHeaders.getVary()).isEqualTo(leaderHeaders.getVary());
+        assertThat(followerHeaders.getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(followerHeaders.getFirst("X-Upstream")).isEqualTo("user-service");
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+    }
+
+    private static MockServerWebExchange exchange(String origin) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("http://gateway/api/user/get").header(HttpHeaders.ORIGIN, origin));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, ROUTE);
+        return exchange;
+    }
+
+    private CompletableFuture<Void> run(MockServerWebExchange exchange) {
+        return corsWebFilter.filter(exchange, corsExchange -> filter.filter(corsExchange, upstream()))
+                .timeout(Duration.ofSeconds(5))
+                .toFuture();
+    }
+
+    /**
+     * 下游在 release 之后才返回，保证第二个请求加入在途调用
+     */
+    private GatewayFilterChain upstream() {
+        return exchange -> release.asMono().then(Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().set("X-Upstream", "user-service");
+            byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }));
+    }
+}
@@ -66,9 +66,53 @@ public class AuthJwtProperties {
      */
     private String REFRESH_TOKEN;
 
+    /**
+     * 令牌声明格式：standard(默认，sub/用户名/created) / compact(sub/un/iat秒/v)
+     * 两种格式的令牌均可校验，切换期间旧令牌仍然有效
+     */
+    private String claimsProfile = "standard";
+
+    /**
+     * 令牌存储实现：redis(默认) / memory(测试及本地调试)
+     */
+    private String tokenStore = "redis";
+
+    /**
+     * 登出吊销标记键前缀，值为吊销时间戳，存活至登出前签发的令牌(含refreshToken)全部过期
+     */
+    private String revokeKeyPrefix = "auth:revoked:";
+
+    /**
+     * 登出吊销广播频道，消息格式为 userId:吊销时间戳
+     */
+    private String revokeChannel = "auth:revoke";
+
+    /**
+     * 刷新令牌事件广播频道，令牌被轮换或覆盖时发布，消息格式为 userId:旧刷新令牌sha1:发布时间戳
+     */
+    private String tokenEventChannel = "auth:token:event";
+
+    /**
+     * 是否在redis前启用刷新令牌的本地近端缓存
+     */
+    private Boolean nearCacheEnabled = false;
+
+    /**
+     * 近端缓存最大条目数
+     */
+    private Long nearCacheMaxSize = 100_000L;
+
     /**
      * 是否使用默认的JWTAuthController
      */
     private Boolean useDefaultController = false;
 
+    /**
+     * 令牌的最长有效期(毫秒)，即 refreshToken 的有效期(accessToken 的2倍)
+     *
+     * @return 最长有效期
+     */
+    public long maxTokenLifetime() {
+        return expire * 2;
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.jwtutil.jwtUtil;
+
+/**
+ * 令牌数据声明名称
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public interface ClaimsConstant {
+
+    /**
+     * 用户id
+     */
+    String SUBJECT = "sub";
+
+    /**
+     * 标准格式的签发时间(java.util.Date，毫秒)
+     */
+    String CREATED = "created";
+
+    /**
+     * 紧凑格式的签发时间(秒)
+     */
+    String ISSUED_AT = "iat";
+
+    /**
+     * 紧凑格式的用户名
+     */
+    String COMPACT_USER_NAME = "un";
+
+    /**
+     * 声明格式版本，缺省为标准格式
+     */
+    String VERSION = "v";
+
+    /**
+     * 紧凑格式版本号
+     */
+    int COMPACT_VERSION = 2;
+
+    /**
+     * 标准声明格式
+     */
+    String PROFILE_STANDARD = "standard";
+
+    /**
+     * 紧凑声明格式
+     */
+    String PROFILE_COMPACT = "compact";
+}
@@ -0,0 +1,225 @@
+package com.example.jwtutil.jwtUtil;
+
+import com.example.jwtutil.config.AuthJwtProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HS512 JWT 编解码器
+ * <p>
+ * 与 jjwt 生成的令牌格式完全兼容：密钥只在配置的 secret 变化时重新派生，
+ * 每个线程复用一个 {@link Mac} 实例，校验时直接在令牌字节上计算签名，不再构造中间字符串。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+public class JwtCodec {
+
+    /**
+     * 签名算法
+     */
+    private static final String ALGORITHM = "HmacSHA512";
+
+    /**
+     * 过期时间声明
+     */
+    private static final String EXPIRATION = "exp";
+
+    /**
+     * jjwt 生成的固定头部 {"alg":"HS512"}
+     */
+    private static final byte[] HEADER = Base64.getUrlEncoder().withoutPadding()
+            .encode("{\"alg\":\"HS512\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * jwt配置
+     */
+    @Resource
+    private AuthJwtProperties jwtProperties;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 当前密钥，secret 经 Nacos 刷新后重新派生
+     */
+    private volatile SigningKey signingKey;
+
+    /**
+     * 线程私有的 Mac 实例
+     */
+    private final ThreadLocal<ThreadMac> threadMac = ThreadLocal.withInitial(ThreadMac::new);
+
+    /**
+     * 生成令牌
+     *
+     * @param claims   数据声明
+     * @param expireAt 过期时间戳(毫秒)
+     * @return 令牌
+     */
+    public String encode(Map<String, Object> claims, long expireAt) {
+        Map<String, Object> body = new LinkedHashMap<>(claims);
+        body.put(EXPIRATION, expireAt / 1000);
+        byte[] payload;
+        try {
+            payload = ENCODER.encode(objectMapper.writeValueAsBytes(body));
+        } catch (Exception e) {
+            throw new IllegalStateException("JWT声明序列化失败", e);
+        }
+        int signingLength = HEADER.length + 1 + payload.length;
+        byte[] signingInput = new byte[signingLength];
+        System.arraycopy(HEADER, 0, signingInput, 0, HEADER.length);
+        signingInput[HEADER.length] = '.';
+        System.arraycopy(payload, 0, signingInput, HEADER.length + 1, payload.length);
+
+        Mac mac = mac();
+        mac.update(signingInput);
+        byte[] signature = ENCODER.encode(mac.doFinal());
+
+        byte[] token = new byte[signingLength + 1 + signature.length];
+        System.arraycopy(signingInput, 0, token, 0, signingLength);
+        token[signingLength] = '.';
+        System.arraycopy(signature, 0, token, signingLength + 1, signature.length);
+        return new String(token, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 校验签名并解析数据声明
+     *
+     * @param token 令牌
+     * @return 数据声明，签名无效、格式错误或已过期时返回null
+     */
+    public Claims decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        byte[] bytes = token.getBytes(StandardCharsets.ISO_8859_1);
+        int headerEnd = indexOf(bytes, 0);
+        int payloadEnd = headerEnd < 0 ? -1 : indexOf(bytes, headerEnd + 1);
+        if (payloadEnd < 0 || indexOf(bytes, payloadEnd + 1) >= 0) {
+            return null;
+        }
+        try {
+            if (!isSupportedHeader(bytes, headerEnd)) {
+                return null;
+            }
+            Mac mac = mac();
+            mac.update(bytes, 0, payloadEnd);
+            byte[] expected = mac.doFinal();
+            ByteBuffer signature = DECODER.decode(ByteBuffer.wrap(bytes, payloadEnd + 1, bytes.length - payloadEnd - 1));
+            if (!MessageDigest.isEqual(expected, toArray(signature))) {
+                return null;
+            }
+            ByteBuffer payload = DECODER.decode(ByteBuffer.wrap(bytes, headerEnd + 1, payloadEnd - headerEnd - 1));
+            Map<String, Object> body = objectMapper.readValue(payload.array(), payload.arrayOffset(), payload.remaining(), MAP_TYPE);
+            Object exp = body.get(EXPIRATION);
+            if (exp instanceof Number && ((Number) exp).longValue() * 1000 < System.currentTimeMillis()) {
+                return null;
+            }
+            return new DefaultClaims(body);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 头部是否为 HS512，绝大多数令牌与固定头部逐字节相同，无需解析JSON
+     */
+    private boolean isSupportedHeader(byte[] bytes, int headerEnd) throws IOException {
+        if (headerEnd == HEADER.length && Arrays.equals(bytes, 0, headerEnd, HEADER, 0, HEADER.length)) {
+            return true;
+        }
+        ByteBuffer header = DECODER.decode(ByteBuffer.wrap(bytes, 0, headerEnd));
+        Map<String, Object> map = objectMapper.readValue(header.array(), header.arrayOffset(), header.remaining(), MAP_TYPE);
+        return "HS512".equals(map.get("alg"));
+    }
+
+    /**
+     * 获取已用当前密钥初始化的线程私有 Mac
+     */
+    private Mac mac() {
+        SecretKeySpec key = signingKey();
+        ThreadMac holder = threadMac.get();
+        try {
+            if (holder.mac == null) {
+                holder.mac = Mac.getInstance(ALGORITHM);
+            }
+            if (holder.key != key) {
+                holder.mac.init(key);
+                holder.key = key;
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化HS512签名失败", e);
+        }
+        return holder.mac;
+    }
+
+    /**
+     * 获取密钥，仅在 secret 变化时重新派生(与 jjwt 相同，secret 按 Base64 解码)
+     */
+    private SecretKeySpec signingKey() {
+        String secret = jwtProperties.getSecret();
+        SigningKey current = signingKey;
+        if (current == null || !current.secret().equals(secret)) {
+            current = new SigningKey(secret, new SecretKeySpec(TextCodec.BASE64.decode(secret), ALGORITHM));
+            signingKey = current;
+        }
+        return current.key();
+    }
+
+    private static int indexOf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '.') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] array = new byte[buffer.remaining()];
+        buffer.get(array);
+        return array;
+    }
+
+    /**
+     * 密钥及其来源 secret
+     */
+    private record SigningKey(String secret, SecretKeySpec key) {
+    }
+
+    /**
+     * 线程私有的 Mac 及其初始化所用密钥
+     */
+    private static final class ThreadMac {
+        private Mac mac;
+        private SecretKeySpec key;
+    }
+}
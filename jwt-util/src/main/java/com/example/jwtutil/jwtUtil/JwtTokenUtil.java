@@ -1,18 +1,15 @@
 package com.example.jwtutil.jwtUtil;
 
 import com.example.jwtutil.config.AuthJwtProperties;
+import com.example.jwtutil.store.TokenStore;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -38,10 +35,16 @@ public class JwtTokenUtil {
 
 
     /**
-     * redis工具类
+     * jwt编解码器
      */
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private JwtCodec jwtCodec;
+
+    /**
+     * 令牌存储
+     */
+    @Resource
+    private TokenStore tokenStore;
 
     /**
      * 生成令牌和刷新令牌
@@ -116,10 +119,16 @@ public class JwtTokenUtil {
     private Map<String, Object> buildClaims(String userId, String username, Map<String, String> payloads) {
         int payloadSizes = payloads == null? 0 : payloads.size();
 
-        Map<String, Object> claims = new HashMap<>(payloadSizes + 2);
-        claims.put("sub", userId);
-        claims.put(jwtProperties.getUSER_NAME(), username);
-        claims.put("created", new Date());
+        Map<String, Object> claims = new HashMap<>(payloadSizes + 4);
+        claims.put(ClaimsConstant.SUBJECT, userId);
+        if (isCompactProfile()) {
+            claims.put(ClaimsConstant.COMPACT_USER_NAME, username);
+            claims.put(ClaimsConstant.ISSUED_AT, System.currentTimeMillis() / 1000);
+            claims.put(ClaimsConstant.VERSION, ClaimsConstant.COMPACT_VERSION);
+        } else {
+            claims.put(jwtProperties.getUSER_NAME(), username);
+            claims.put(ClaimsConstant.CREATED, new Date());
+        }
         if(payloadSizes > 0){
             claims.putAll(payloads);
         }
@@ -129,6 +138,10 @@ public class JwtTokenUtil {
 
 
 
+    private boolean isCompactProfile() {
+        return ClaimsConstant.PROFILE_COMPACT.equalsIgnoreCase(jwtProperties.getClaimsProfile());
+    }
+
     /**
      * 生成令牌
      *
@@ -136,13 +149,7 @@ public class JwtTokenUtil {
      * @return 令牌
      */
     private String generateToken(Map<String, Object> claims) {
-        Date expirationDate = new Date(System.currentTimeMillis()
-                + jwtProperties.getExpire());
-        return Jwts.builder().setClaims(claims)
-                .setExpiration(expirationDate)
-                .signWith(SignatureAlgorithm.HS512,
-                        jwtProperties.getSecret())
-                .compact();
+        return jwtCodec.encode(claims, System.currentTimeMillis() + jwtProperties.getExpire());
     }
 
     /**
@@ -152,11 +159,7 @@ public class JwtTokenUtil {
      * @return 令牌
      */
     private String generateRefreshToken(Map<String, Object> claims) {
-        Date expirationDate = new Date(System.currentTimeMillis() + jwtProperties.getExpire() * 2);
-        return Jwts.builder().setClaims(claims)
-                .setExpiration(expirationDate)
-                .signWith(SignatureAlgorithm.HS512, jwtProperties.getSecret())
-                .compact();
+        return jwtCodec.encode(claims, System.currentTimeMillis() + jwtProperties.maxTokenLifetime());
     }
 
 
@@ -167,9 +170,8 @@ public class JwtTokenUtil {
      * @param tokenMap 令牌映射
      */
     private void cacheToken(String userId, Map<String, Object> tokenMap) {
-        stringRedisTemplate.opsForHash().put(jwtProperties.getJWT_CACHE_KEY() + userId, jwtProperties.getACCESS_TOKEN(), tokenMap.get(jwtProperties.getACCESS_TOKEN()));
-        stringRedisTemplate.opsForHash().put(jwtProperties.getJWT_CACHE_KEY() + userId, jwtProperties.getREFRESH_TOKEN(), tokenMap.get(jwtProperties.getREFRESH_TOKEN()));
-        stringRedisTemplate.expire(userId, jwtProperties.getExpire() * 2, TimeUnit.MILLISECONDS);
+        tokenStore.save(userId, (String) tokenMap.get(jwtProperties.getACCESS_TOKEN()),
+                (String) tokenMap.get(jwtProperties.getREFRESH_TOKEN()), jwtProperties.maxTokenLifetime());
     }
 
 
@@ -184,13 +186,23 @@ public class JwtTokenUtil {
     public Claims getClaimsFromToken(String token) {
         Claims claims;
         try {
-            claims = Jwts.parser().setSigningKey(jwtProperties.getSecret()).parseClaimsJws(token).getBody();
+            claims = jwtCodec.decode(token);
         } catch (Exception e) {
             claims = null;
         }
         return claims;
     }
 
+    /**
+     * 校验令牌并一次性解析出用户id、用户名与过期时间
+     *
+     * @param token 令牌
+     * @return {@link ParsedToken}，校验失败时为 {@link ParsedToken#INVALID}
+     */
+    public ParsedToken parseToken(String token) {
+        return ParsedToken.of(getClaimsFromToken(token), jwtProperties.getUSER_NAME());
+    }
+
     /**
      * 刷新令牌并生成新令牌
      * 并将新结果缓存进redis
@@ -201,21 +213,41 @@ public class JwtTokenUtil {
      */
     public Map<String, Object> refreshTokenAndGenerateToken(String userId, String username) {
         Map<String, Object> tokenMap = buildToken(userId, username);
-        stringRedisTemplate.delete(jwtProperties.getJWT_CACHE_KEY() + userId);
         cacheToken(userId, tokenMap);
         return tokenMap;
     }
 
+    /**
+     * 使用刷新令牌换取新令牌对
+     * 仅当 redis 中的刷新令牌仍为 refreshToken 时原子替换，刷新令牌只能使用一次
+     *
+     * @param parsedToken  已校验的刷新令牌
+     * @param refreshToken 刷新令牌原文
+     * @return {@link Map}<{@link String}, {@link Object}>，刷新令牌已被使用、已登出或不存在时返回null
+     */
+    public Map<String, Object> rotateRefreshToken(ParsedToken parsedToken, String refreshToken) {
+        String userId = parsedToken.getSubject();
+        //已确定作废的刷新令牌无需签发新令牌
+        if (tokenStore.isKnownStale(userId, refreshToken)) {
+            return null;
+        }
+        Map<String, Object> tokenMap = buildToken(userId, parsedToken.getUsername());
+        boolean rotated = tokenStore.rotate(userId, refreshToken,
+                (String) tokenMap.get(jwtProperties.getACCESS_TOKEN()),
+                (String) tokenMap.get(jwtProperties.getREFRESH_TOKEN()), jwtProperties.maxTokenLifetime());
+        return rotated ? tokenMap : null;
+    }
+
 
 
     /**
-     * 删除令牌
+     * 删除令牌，并写入吊销标记、广播给网关，使登出前签发的访问令牌与刷新令牌立即失效
      *
      * @param userId 用户id
      * @return boolean
      */
     public boolean removeToken(String userId) {
-        return Boolean.TRUE.equals(stringRedisTemplate.delete(jwtProperties.getJWT_CACHE_KEY() + userId));
+        return tokenStore.remove(userId);
     }
 
     /**
@@ -225,14 +257,7 @@ public class JwtTokenUtil {
      * @return 用户id
      */
     public String getUserIdFromToken(String token) {
-        String userId;
-        try {
-            Claims claims = getClaimsFromToken(token);
-            userId = claims.getSubject();
-        } catch (Exception e) {
-            userId = null;
-        }
-        return userId;
+        return parseToken(token).getSubject();
     }
 
     /**
@@ -242,26 +267,7 @@ public class JwtTokenUtil {
      * @return 用户名
      */
     public String getUserNameFromToken(String token) {
-        String username;
-        try {
-            Claims claims = getClaimsFromToken(token);
-            username = (String) claims.get(jwtProperties.getUSER_NAME());
-        } catch (Exception e) {
-            username = null;
-        }
-        return username;
-    }
-
-    /**
-     * 判断令牌是否不存在 redis 中
-     *
-     * @param token 刷新令牌
-     * @return true=不存在，false=存在
-     */
-    public Boolean isRefreshTokenNotExistCache(String token) {
-        String userId = getUserIdFromToken(token);
-        String refreshToken = (String)stringRedisTemplate.opsForHash().get(jwtProperties.getJWT_CACHE_KEY() + userId, jwtProperties.getREFRESH_TOKEN());
-        return refreshToken == null || !refreshToken.equals(token);
+        return parseToken(token).getUsername();
     }
 
     /**
@@ -271,14 +277,8 @@ public class JwtTokenUtil {
      * @return true=已过期，false=未过期
      */
     public Boolean isTokenExpired(String token) {
-        try {
-            Claims claims = getClaimsFromToken(token);
-            Date expiration = claims.getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            //验证 JWT 签名失败或令牌过期
-            return true;
-        }
+        //验证 JWT 签名失败或令牌过期
+        return parseToken(token).isExpired();
     }
 
     /**
@@ -291,7 +291,11 @@ public class JwtTokenUtil {
         String refreshedToken;
         try {
             Claims claims = getClaimsFromToken(token);
-            claims.put("created", new Date());
+            if (claims.containsKey(ClaimsConstant.VERSION)) {
+                claims.put(ClaimsConstant.ISSUED_AT, System.currentTimeMillis() / 1000);
+            } else {
+                claims.put(ClaimsConstant.CREATED, new Date());
+            }
             refreshedToken = generateToken(claims);
         } catch (Exception e) {
             refreshedToken = null;
@@ -308,9 +312,8 @@ public class JwtTokenUtil {
      * @return 是否有效
      */
     public Boolean validateToken(String token, String userId) {
-
-        String userIdByToken = getUserIdFromToken(token);
-        return (userIdByToken.equals(userId) && !isTokenExpired(token));
+        ParsedToken parsedToken = parseToken(token);
+        return parsedToken.isValid() && parsedToken.getSubject().equals(userId);
     }
 
 
@@ -0,0 +1,100 @@
+package com.example.jwtutil.jwtUtil;
+
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * 一次校验得到的令牌解析结果，兼容标准与紧凑两种声明格式
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ParsedToken {
+
+    /**
+     * 签名无效、格式错误或已过期的令牌
+     */
+    public static final ParsedToken INVALID = new ParsedToken(null, null, 0L, 0L, false);
+
+    /**
+     * 用户id(sub)
+     */
+    private final String subject;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * 签发时间戳(毫秒)，用于判断令牌是否签发于登出之前
+     * 紧凑格式只精确到秒，取该秒的最后一毫秒，避免登出后同一秒内重新登录签发的令牌被误判为已吊销
+     */
+    private final long issuedAt;
+
+    /**
+     * 过期时间戳(毫秒)
+     */
+    private final long expiration;
+
+    /**
+     * 解析时令牌是否有效
+     */
+    private final boolean valid;
+
+    /**
+     * 由已校验签名的数据声明构建解析结果
+     *
+     * @param claims      数据声明，为null表示校验失败
+     * @param usernameKey 用户名声明名称
+     * @return {@link ParsedToken}
+     */
+    public static ParsedToken of(Claims claims, String usernameKey) {
+        if (claims == null) {
+            return INVALID;
+        }
+        Date expirationDate = claims.getExpiration();
+        if (expirationDate == null || expirationDate.getTime() <= System.currentTimeMillis()) {
+            return INVALID;
+        }
+        boolean compact = claims.get(ClaimsConstant.VERSION) instanceof Number version
+                && version.intValue() >= ClaimsConstant.COMPACT_VERSION;
+        Object username = claims.get(compact ? ClaimsConstant.COMPACT_USER_NAME : usernameKey);
+        long issuedAt = compact ? secondsToMillis(claims.get(ClaimsConstant.ISSUED_AT))
+                : toMillis(claims.get(ClaimsConstant.CREATED));
+        return new ParsedToken(claims.getSubject(), username == null ? null : username.toString(),
+                issuedAt, expirationDate.getTime(), true);
+    }
+
+    private static long secondsToMillis(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue() * 1000 + 999;
+        }
+        return 0L;
+    }
+
+    private static long toMillis(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        return 0L;
+    }
+
+    /**
+     * 令牌当前是否已过期
+     *
+     * @return true=已过期或无效，false=未过期
+     */
+    public boolean isExpired() {
+        return !valid || expiration <= System.currentTimeMillis();
+    }
+}
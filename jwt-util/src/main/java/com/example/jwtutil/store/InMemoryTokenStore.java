@@ -0,0 +1,59 @@
+package com.example.jwtutil.store;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内令牌存储，用于测试及本地调试(auth.jwt.token-store=memory)
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@ConditionalOnProperty(prefix = "auth.jwt", name = "token-store", havingValue = "memory")
+public class InMemoryTokenStore implements TokenStore {
+
+    private final Map<String, TokenPair> tokens = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(String userId, String accessToken, String refreshToken, long ttl) {
+        tokens.put(userId, new TokenPair(accessToken, refreshToken, System.currentTimeMillis() + ttl));
+    }
+
+    @Override
+    public boolean rotate(String userId, String expectedRefreshToken, String accessToken, String refreshToken, long ttl) {
+        TokenPair next = new TokenPair(accessToken, refreshToken, System.currentTimeMillis() + ttl);
+        TokenPair result = tokens.computeIfPresent(userId, (key, current) ->
+                !current.isExpired() && Objects.equals(current.refreshToken(), expectedRefreshToken) ? next : current);
+        return result == next;
+    }
+
+    @Override
+    public String getRefreshToken(String userId) {
+        TokenPair pair = tokens.get(userId);
+        if (pair == null || pair.isExpired()) {
+            return null;
+        }
+        return pair.refreshToken();
+    }
+
+    @Override
+    public boolean remove(String userId) {
+        TokenPair removed = tokens.remove(userId);
+        return removed != null && !removed.isExpired();
+    }
+
+    /**
+     * 令牌对及过期时间戳(毫秒)
+     */
+    private record TokenPair(String accessToken, String refreshToken, long expireAt) {
+
+        boolean isExpired() {
+            return expireAt <= System.currentTimeMillis();
+        }
+    }
+}
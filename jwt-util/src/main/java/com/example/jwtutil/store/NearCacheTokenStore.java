@@ -0,0 +1,208 @@
+package com.example.jwtutil.store;
+
+import com.example.jwtutil.config.AuthJwtProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带本地近端缓存的令牌存储，装饰 {@link RedisTokenStore}
+ * <p>
+ * 本地记录已作废刷新令牌的sha1：刷新令牌一经轮换或覆盖便永远不会再生效，因此可在本地直接拒绝，不存在误判；
+ * 其他节点上的轮换通过令牌事件广播同步。
+ * 客户端唤醒时常以同一刷新令牌并发刷新，第一次轮换之后的重复请求在任意节点上都不再访问redis。
+ * 轮换本身仍由redis原子比较并替换，近端缓存只用于拒绝。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Primary
+@Slf4j
+@ConditionalOnExpression("${auth.jwt.near-cache-enabled:false} and '${auth.jwt.token-store:redis}' == 'redis'")
+public class NearCacheTokenStore implements TokenStore, MessageListener, InitializingBean {
+
+    private static final String METRIC_PREFIX = "auth.token.near-cache";
+
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @Resource
+    private RedisTokenStore delegate;
+
+    @Resource
+    private AuthJwtProperties jwtProperties;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * 已作废刷新令牌的sha1
+     */
+    private Cache<String, Boolean> retired;
+
+    private final LongAdder localRejections = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private final LongAdder invalidationLagTotal = new LongAdder();
+
+    private final LongAccumulator invalidationLagMax = new LongAccumulator(Math::max, 0L);
+
+    private Timer invalidationLag;
+
+    @Override
+    public void afterPropertiesSet() {
+        //作废的刷新令牌在其自身过期后便无需记录
+        retired = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getNearCacheMaxSize())
+                .expireAfterWrite(Duration.ofMillis(jwtProperties.maxTokenLifetime()))
+                .recordStats()
+                .build();
+        redisMessageListenerContainer.addMessageListener(this,
+                new ChannelTopic(jwtProperties.getTokenEventChannel()));
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    @Override
+    public void save(String userId, String accessToken, String refreshToken, long ttl) {
+        delegate.save(userId, accessToken, refreshToken, ttl);
+    }
+
+    @Override
+    public boolean rotate(String userId, String expectedRefreshToken, String accessToken, String refreshToken, long ttl) {
+        String digest = sha1(expectedRefreshToken);
+        if (retired.getIfPresent(digest) != null) {
+            localRejections.increment();
+            return false;
+        }
+        if (delegate.rotate(userId, expectedRefreshToken, accessToken, refreshToken, ttl)) {
+            if (!expectedRefreshToken.equals(refreshToken)) {
+                retired.put(digest, Boolean.TRUE);
+            }
+            return true;
+        }
+        //已校验签名却未能轮换，说明该刷新令牌已被使用或已登出，之后也不会再生效
+        retired.put(digest, Boolean.TRUE);
+        return false;
+    }
+
+    @Override
+    public boolean isKnownStale(String userId, String refreshToken) {
+        if (retired.getIfPresent(sha1(refreshToken)) != null) {
+            localRejections.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String getRefreshToken(String userId) {
+        return delegate.getRefreshToken(userId);
+    }
+
+    @Override
+    public boolean remove(String userId) {
+        return delegate.remove(userId);
+    }
+
+    /**
+     * 处理令牌事件：userId:旧刷新令牌sha1:发布时间戳
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int last = body.lastIndexOf(':');
+        int digestStart = last <= 0 ? -1 : body.lastIndexOf(':', last - 1);
+        if (digestStart <= 0) {
+            return;
+        }
+        retired.put(body.substring(digestStart + 1, last), Boolean.TRUE);
+        try {
+            recordLag(System.currentTimeMillis() - Long.parseLong(body.substring(last + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析令牌广播:{}", body);
+        }
+    }
+
+    /**
+     * 近端缓存统计
+     *
+     * @return {@link NearCacheStats}
+     */
+    public NearCacheStats stats() {
+        long count = invalidations.sum();
+        return new NearCacheStats(retired.estimatedSize(), localRejections.sum(), count,
+                count == 0 ? 0 : invalidationLagTotal.sum() / count, invalidationLagMax.get());
+    }
+
+    private void recordLag(long lagMillis) {
+        //发布方与本节点的时钟偏差可能使延迟为负
+        long lag = Math.max(lagMillis, 0L);
+        invalidations.increment();
+        invalidationLagTotal.add(lag);
+        invalidationLagMax.accumulate(lag);
+        if (invalidationLag != null) {
+            invalidationLag.record(lag, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, retired, METRIC_PREFIX);
+        FunctionCounter.builder(METRIC_PREFIX + ".local.rejections", localRejections, LongAdder::sum)
+                .description("在本地拒绝的已作废刷新令牌数")
+                .register(registry);
+        invalidationLag = Timer.builder(METRIC_PREFIX + ".invalidation.lag")
+                .description("令牌广播从发布到本节点失效的延迟")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private static String sha1(String token) {
+        return HexFormat.of().formatHex(SHA1.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 近端缓存统计
+     *
+     * @param retiredTokens    本地记录的已作废刷新令牌数
+     * @param localRejections  本地拒绝次数
+     * @param invalidations    收到的失效广播数
+     * @param avgLagMillis     平均失效延迟(毫秒)
+     * @param maxLagMillis     最大失效延迟(毫秒)
+     */
+    public record NearCacheStats(long retiredTokens, long localRejections, long invalidations,
+                                 long avgLagMillis, long maxLagMillis) {
+    }
+}
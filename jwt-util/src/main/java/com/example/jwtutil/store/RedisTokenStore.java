@@ -0,0 +1,105 @@
+package com.example.jwtutil.store;
+
+import com.example.jwtutil.config.AuthJwtProperties;
+import jakarta.annotation.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 基于redis hash的令牌存储，每个操作为一次 Lua 脚本调用
+ * <p>
+ * 登出脚本同时写入吊销标记并广播，供网关的本地吊销表使用；
+ * 刷新令牌被轮换或覆盖时广播令牌事件，供各节点的近端缓存失效。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@ConditionalOnProperty(prefix = "auth.jwt", name = "token-store", havingValue = "redis", matchIfMissing = true)
+public class RedisTokenStore implements TokenStore {
+
+    /**
+     * KEYS[1]=令牌hash ARGV=访问令牌字段,访问令牌,刷新令牌字段,刷新令牌,ttl,事件频道,用户id,时间戳
+     * <p>
+     * 覆盖了旧的刷新令牌时广播事件
+     */
+    private static final RedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "local old = redis.call('HGET', KEYS[1], ARGV[3]) "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4]) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[5]) "
+                    + "if old and old ~= ARGV[4] then "
+                    + "redis.call('PUBLISH', ARGV[6], ARGV[7] .. ':' .. redis.sha1hex(old) .. ':' .. ARGV[8]) end "
+                    + "return 1", Long.class);
+
+    /**
+     * KEYS[1]=令牌hash ARGV=刷新令牌字段,旧刷新令牌,访问令牌字段,访问令牌,新刷新令牌,ttl,事件频道,用户id,时间戳
+     * <p>
+     * 轮换成功后广播事件
+     */
+    private static final RedisScript<Long> ROTATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[2] then return 0 end "
+                    + "redis.call('HSET', KEYS[1], ARGV[3], ARGV[4], ARGV[1], ARGV[5]) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[6]) "
+                    + "if ARGV[2] ~= ARGV[5] then "
+                    + "redis.call('PUBLISH', ARGV[7], ARGV[8] .. ':' .. redis.sha1hex(ARGV[2]) .. ':' .. ARGV[9]) end "
+                    + "return 1", Long.class);
+
+    /**
+     * KEYS[1]=令牌hash KEYS[2]=吊销标记 ARGV=吊销时间戳,吊销标记ttl,吊销频道,用户id
+     * <p>
+     * 刷新令牌与访问令牌声明相同、同样可作为 Bearer 令牌使用，标记须存活到刷新令牌过期
+     */
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "local removed = redis.call('DEL', KEYS[1]) "
+                    + "redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2]) "
+                    + "redis.call('PUBLISH', ARGV[3], ARGV[4] .. ':' .. ARGV[1]) "
+                    + "return removed", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private AuthJwtProperties jwtProperties;
+
+    @Override
+    public void save(String userId, String accessToken, String refreshToken, long ttl) {
+        stringRedisTemplate.execute(SAVE_SCRIPT, List.of(tokenKey(userId)),
+                jwtProperties.getACCESS_TOKEN(), accessToken,
+                jwtProperties.getREFRESH_TOKEN(), refreshToken,
+                String.valueOf(ttl), jwtProperties.getTokenEventChannel(),
+                userId, String.valueOf(System.currentTimeMillis()));
+    }
+
+    @Override
+    public boolean rotate(String userId, String expectedRefreshToken, String accessToken, String refreshToken, long ttl) {
+        Long rotated = stringRedisTemplate.execute(ROTATE_SCRIPT, List.of(tokenKey(userId)),
+                jwtProperties.getREFRESH_TOKEN(), expectedRefreshToken,
+                jwtProperties.getACCESS_TOKEN(), accessToken,
+                refreshToken, String.valueOf(ttl), jwtProperties.getTokenEventChannel(),
+                userId, String.valueOf(System.currentTimeMillis()));
+        return Long.valueOf(1L).equals(rotated);
+    }
+
+    @Override
+    public String getRefreshToken(String userId) {
+        return (String) stringRedisTemplate.opsForHash().get(tokenKey(userId), jwtProperties.getREFRESH_TOKEN());
+    }
+
+    @Override
+    public boolean remove(String userId) {
+        Long removed = stringRedisTemplate.execute(REMOVE_SCRIPT,
+                List.of(tokenKey(userId), jwtProperties.getRevokeKeyPrefix() + userId),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(jwtProperties.maxTokenLifetime()),
+                jwtProperties.getRevokeChannel(), userId);
+        return removed != null && removed > 0;
+    }
+
+    private String tokenKey(String userId) {
+        return jwtProperties.getJWT_CACHE_KEY() + userId;
+    }
+}
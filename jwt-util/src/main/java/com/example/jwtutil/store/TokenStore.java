@@ -0,0 +1,61 @@
+package com.example.jwtutil.store;
+
+/**
+ * 令牌存储
+ * <p>
+ * 每个操作在一次往返内完成，刷新令牌的轮换为原子的比较并替换。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public interface TokenStore {
+
+    /**
+     * 登录：保存用户的令牌对
+     *
+     * @param userId       用户id
+     * @param accessToken  访问令牌
+     * @param refreshToken 刷新令牌
+     * @param ttl          存活时间(毫秒)
+     */
+    void save(String userId, String accessToken, String refreshToken, long ttl);
+
+    /**
+     * 刷新：仅当当前刷新令牌等于 expectedRefreshToken 时替换为新的令牌对
+     *
+     * @param userId               用户id
+     * @param expectedRefreshToken 客户端提交的刷新令牌
+     * @param accessToken          新访问令牌
+     * @param refreshToken         新刷新令牌
+     * @param ttl                  存活时间(毫秒)
+     * @return true=替换成功，false=刷新令牌已被使用、已登出或不存在
+     */
+    boolean rotate(String userId, String expectedRefreshToken, String accessToken, String refreshToken, long ttl);
+
+    /**
+     * 不访问远端存储，判断刷新令牌是否已确定作废(已被轮换或覆盖)
+     *
+     * @param userId       用户id
+     * @param refreshToken 客户端提交的刷新令牌
+     * @return true=已确定作废，false=未知，需以 {@link #rotate} 的结果为准
+     */
+    default boolean isKnownStale(String userId, String refreshToken) {
+        return false;
+    }
+
+    /**
+     * 获取当前刷新令牌
+     *
+     * @param userId 用户id
+     * @return 刷新令牌，不存在时返回null
+     */
+    String getRefreshToken(String userId);
+
+    /**
+     * 登出：删除用户的令牌对
+     *
+     * @param userId 用户id
+     * @return true=删除成功，false=令牌不存在
+     */
+    boolean remove(String userId);
+}
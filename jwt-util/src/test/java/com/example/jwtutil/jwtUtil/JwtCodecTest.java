@@ -0,0 +1,163 @@
+package com.example.jwtutil.jwtUtil;
+
+import com.example.jwtutil.config.AuthJwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HS512 编解码：签名、校验、头部与过期检查及密钥轮换
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+class JwtCodecTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("jwt-codec-test-secret-0123456789".getBytes(StandardCharsets.UTF_8));
+
+    private static final String ROTATED_SECRET = Base64.getEncoder()
+            .encodeToString("jwt-codec-test-secret-rotated-99".getBytes(StandardCharsets.UTF_8));
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final AuthJwtProperties properties = new AuthJwtProperties();
+
+    private final JwtCodec codec = new JwtCodec();
+
+    @BeforeEach
+    void setUp() {
+        properties.setSecret(SECRET);
+        ReflectionTestUtils.setField(codec, "jwtProperties", properties);
+    }
+
+    @Test
+    void roundTrip() {
+        String token = codec.encode(Map.of("sub", "42", "username", "alice"), inOneHour());
+
+        Claims claims = codec.decode(token);
+
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo("42");
+        assertThat(claims.get("username")).isEqualTo("alice");
+        assertThat(claims.getExpiration()).isAfter(new Date());
+    }
+
+    @Test
+    void decodesTokensSignedByJjwt() {
+        String token = Jwts.builder()
+                .setSubject("42")
+                .setExpiration(new Date(inOneHour()))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        assertThat(codec.decode(token)).isNotNull();
+        assertThat(codec.decode(token).getSubject()).isEqualTo("42");
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String token = codec.encode(Map.of("sub", "42"), inOneHour());
+        int index = token.lastIndexOf('.') + 10;
+        char replaced = token.charAt(index) == 'A' ? 'B' : 'A';
+
+        String tampered = token.substring(0, index) + replaced + token.substring(index + 1);
+
+        assertThat(codec.decode(tampered)).isNull();
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String token = codec.encode(Map.of("sub", "42"), inOneHour());
+        String[] parts = token.split("\\.");
+        String payload = encode("{\"sub\":\"1\",\"exp\":" + inOneHour() / 1000 + "}");
+
+        assertThat(codec.decode(parts[0] + "." + payload + "." + parts[2])).isNull();
+    }
+
+    @Test
+    void rejectsOtherAlgorithmOnFastPath() {
+        //与固定头部等长、只有 alg 不同，由逐字节比较转入JSON解析后拒绝
+        String header = "{\"alg\":\"HS256\"}";
+
+        assertThat(codec.decode(sign(header, payload(), SECRET))).isNull();
+    }
+
+    @Test
+    void parsesNonCanonicalHeaderAndChecksAlg() {
+        assertThat(codec.decode(sign("{\"typ\":\"JWT\",\"alg\":\"HS512\"}", payload(), SECRET))).isNotNull();
+        assertThat(codec.decode(sign("{\"typ\":\"JWT\",\"alg\":\"none\"}", payload(), SECRET))).isNull();
+        assertThat(codec.decode(sign("{\"typ\":\"JWT\"}", payload(), SECRET))).isNull();
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = codec.encode(Map.of("sub", "42"), System.currentTimeMillis() - 2_000);
+
+        assertThat(codec.decode(token)).isNull();
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        assertThat(codec.decode(null)).isNull();
+        assertThat(codec.decode("abc")).isNull();
+        assertThat(codec.decode("a.b")).isNull();
+        assertThat(codec.decode("a.b.c.d")).isNull();
+    }
+
+    @Test
+    void rotatedSecretRejectsOldTokensAndSignsNewOnes() {
+        String oldToken = codec.encode(Map.of("sub", "42"), inOneHour());
+
+        properties.setSecret(ROTATED_SECRET);
+        String newToken = codec.encode(Map.of("sub", "42"), inOneHour());
+
+        assertThat(codec.decode(oldToken)).isNull();
+        assertThat(codec.decode(newToken)).isNotNull();
+        assertThat(codec.decode(sign("{\"alg\":\"HS512\"}", payload(), ROTATED_SECRET))).isNotNull();
+
+        properties.setSecret(SECRET);
+        assertThat(codec.decode(oldToken)).isNotNull();
+        assertThat(codec.decode(newToken)).isNull();
+    }
+
+    private static long inOneHour() {
+        return System.currentTimeMillis() + 3_600_000;
+    }
+
+    private static String payload() {
+        return "{\"sub\":\"42\",\"exp\":" + inOneHour() / 1000 + "}";
+    }
+
+    private static String encode(String json) {
+        return ENCODER.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 以 HS512 对任意头部与载荷签名
+     */
+    private static String sign(String header, String payload, String secret) {
+        String signingInput = encode(header) + "." + encode(payload);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA512");
+            mac.init(new SecretKeySpec(TextCodec.BASE64.decode(secret), "HmacSHA512"));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + ENCODER.encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.example.orderservice.controller;
 import com.example.common.result.BaseResult;
 import com.example.common.result.ResultUtil;
 import com.example.model.user.pojo.User;
-import com.example.serviceClient.service.user.UserFeignClient;
+import com.example.serviceClient.service.user.UserBatchLoader;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,12 +13,15 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @RequestMapping("/")
 public class OrderController {
+    /**
+     * 并发的用户查询合并为批量调用
+     */
     @Resource
-    private UserFeignClient userFeignClient;
+    private UserBatchLoader userBatchLoader;
 
     @GetMapping("/id")
     public BaseResult<User> UserById(@RequestParam Long userId){
-        User user = userFeignClient.getUserById(userId);
+        User user = userBatchLoader.getUserById(userId);
         return ResultUtil.success(user);
     }
 }
@@ -0,0 +1,57 @@
+package com.example.serviceClient.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feign 批量加载配置
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "feign.batch")
+@Component
+public class FeignBatchProperties {
+
+    /**
+     * 是否合并单个查询，关闭后逐个调用
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 收集窗口(毫秒)，窗口内的并发查询合并为一次批量调用
+     */
+    private Long maxWait = 2L;
+
+    /**
+     * 单批最多的id数，攒满立即发出，不超过下游接口的上限
+     */
+    private Integer maxBatchSize = 100;
+
+    /**
+     * 同时在途的批量调用数
+     */
+    private Integer concurrency = 4;
+
+    /**
+     * 等待执行的批量调用上限，已满时新的批次直接失败，不再排队
+     */
+    private Integer queueSize = 16;
+
+    /**
+     * 调用方等待批量结果的上限(毫秒)，为空时取 feign.transport 的建连超时、读超时、实例名额等待时间与 maxWait 之和
+     */
+    private Long timeout;
+
+    /**
+     * 批量调用失败、被拒绝或等待超时时，以各id最近一次查询成功的结果兜底，兜底结果的保留时间(毫秒)，0 表示不兜底
+     */
+    private Long lastKnownGoodTtl = 600_000L;
+
+    /**
+     * 兜底结果的最大条目数
+     */
+    private Long lastKnownGoodMaxSize = 10_000L;
+}
@@ -0,0 +1,47 @@
+package com.example.serviceClient.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import feign.RequestInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * 内部接口的 Smile 编码协商
+ * <p>
+ * 各服务(依赖 service-client)都注册 Smile 消息转换器，inner 控制器按请求的 Accept 以 Smile 或 JSON 返回，
+ * Feign 解码时按响应的 Content-Type 选择转换器。Feign 请求优先接受 Smile、其次 JSON，
+ * 因此新旧版本的服务混合部署时仍能正常调用。请求体仍以 JSON 发送：请求无法预知下游是否支持 Smile。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Configuration
+public class FeignCodecConfig {
+
+    /**
+     * Smile 的内容类型
+     */
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    /**
+     * 与 JSON 转换器使用相同的 Jackson 配置(模块、未知字段处理等)
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "feign.codec", name = "smile", havingValue = "true", matchIfMissing = true)
+    public RequestInterceptor smileAcceptInterceptor() {
+        return template -> {
+            if (!template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                template.header(HttpHeaders.ACCEPT, APPLICATION_SMILE, "application/json;q=0.9");
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.serviceClient.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feign 内部接口编码配置
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "feign.codec")
+@Component
+public class FeignCodecProperties {
+
+    /**
+     * 是否请求 Smile 编码的响应，下游不支持时按 JSON 返回，不影响调用
+     */
+    private Boolean smile = true;
+}
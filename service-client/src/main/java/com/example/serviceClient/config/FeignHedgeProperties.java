@@ -0,0 +1,77 @@
+package com.example.serviceClient.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feign 对冲请求配置，可在 Nacos 中修改并在刷新后生效
+ * <p>
+ * 除 {@link com.example.serviceClient.hedge.Hedged} 标注的方法外，也可以按服务名列出要对冲的方法：
+ * <pre>
+ * feign.hedge.clients.user-service=getUserById,getUsersByIds
+ * </pre>
+ * 只应对冲幂等的只读方法。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "feign.hedge")
+@Component
+public class FeignHedgeProperties {
+
+    /**
+     * 是否启用对冲请求
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 触发对冲的耗时分位(0~1)，方法注解中的值优先
+     */
+    private Double percentile = 0.95;
+
+    /**
+     * 对冲延迟下限(毫秒)，方法注解中的值优先
+     */
+    private Long minDelay = 20L;
+
+    /**
+     * 计算分位所需的最少 2xx 样本数，不足时不对冲
+     */
+    private Long minSamples = 100L;
+
+    /**
+     * 耗时样本的统计窗口(毫秒)，分位取自最近一到两个窗口
+     */
+    private Long latencyWindow = 60_000L;
+
+    /**
+     * 对冲请求数占原始请求数的比例上限(所有方法共享)
+     */
+    private Double budgetRatio = 0.1;
+
+    /**
+     * 低流量时每秒保底可对冲次数
+     */
+    private Integer minHedgesPerSecond = 10;
+
+    /**
+     * 对冲预算的统计窗口(毫秒)
+     */
+    private Long budgetWindow = 10_000L;
+
+    /**
+     * 执行对冲调用的最大线程数，线程耗尽时不对冲
+     */
+    private Integer maxThreads = 64;
+
+    /**
+     * 服务名 -> 要对冲的方法名
+     */
+    private Map<String, List<String>> clients = new HashMap<>();
+}
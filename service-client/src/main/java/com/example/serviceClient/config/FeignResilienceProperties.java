@@ -0,0 +1,198 @@
+package com.example.serviceClient.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Feign 客户端舱壁与熔断配置，可在 Nacos 中修改并在刷新后生效
+ * <p>
+ * 配置示例：
+ * <pre>
+ * feign.resilience.defaults.method-max-concurrent=32
+ * feign.resilience.clients.user-service.max-concurrent=100
+ * feign.resilience.clients.user-service.failure-rate-threshold=0.3
+ * feign.resilience.clients.user-service.methods.getUserById.open-duration=10000
+ * </pre>
+ * 客户端以 @FeignClient 的服务名为键，方法以方法名为键；未配置的项依次取客户端、defaults 的值。
+ * maxConcurrent 只取 defaults 与客户端级，方法级的上限由 methodMaxConcurrent 配置。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "feign.resilience")
+@Component
+public class FeignResilienceProperties {
+
+    /**
+     * 是否启用舱壁与熔断
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 兜底响应缓存的最大条目数(所有方法共享)
+     */
+    private Long lastKnownGoodMaxSize = 10_000L;
+
+    /**
+     * 所有客户端与方法的默认值
+     */
+    private Policy defaults = Policy.defaults();
+
+    /**
+     * 服务名 -> 客户端配置
+     */
+    private Map<String, ClientPolicy> clients = new HashMap<>();
+
+    /**
+     * 方法最终生效的配置
+     *
+     * @param clientName 服务名
+     * @param methodName 方法名
+     * @return {@link Policy}
+     */
+    public Policy resolve(String clientName, String methodName) {
+        Policy policy = Policy.defaults().merge(defaults);
+        ClientPolicy client = clients.get(clientName);
+        if (client != null) {
+            policy = policy.merge(client);
+            Policy method = client.getMethods().get(methodName);
+            if (method != null) {
+                //客户端舱壁由同一客户端的所有方法共享，方法级的 maxConcurrent 不生效
+                Integer clientMaxConcurrent = policy.getMaxConcurrent();
+                policy = policy.merge(method);
+                policy.setMaxConcurrent(clientMaxConcurrent);
+            }
+        }
+        return policy;
+    }
+
+    /**
+     * 客户端级配置，maxConcurrent 限制整个客户端的在途调用
+     */
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class ClientPolicy extends Policy {
+
+        /**
+         * 方法名 -> 方法配置
+         */
+        private Map<String, Policy> methods = new HashMap<>();
+    }
+
+    /**
+     * 舱壁与熔断参数，为 null 的项沿用上一级
+     */
+    @Data
+    public static class Policy {
+
+        /**
+         * 客户端在途调用上限(只在 defaults 与客户端级生效)
+         */
+        private Integer maxConcurrent;
+
+        /**
+         * 单个方法在途调用上限
+         */
+        private Integer methodMaxConcurrent;
+
+        /**
+         * 舱壁已满时的最长等待时间(毫秒)，0 表示立即拒绝
+         */
+        private Long maxWait;
+
+        /**
+         * 失败率阈值(0~1)，IO异常与5xx响应计为失败
+         */
+        private Double failureRateThreshold;
+
+        /**
+         * 慢调用率阈值(0~1)，大于1表示不按慢调用熔断
+         */
+        private Double slowCallRateThreshold;
+
+        /**
+         * 超过该耗时(毫秒)的调用计为慢调用
+         */
+        private Long slowCallDuration;
+
+        /**
+         * 窗口内至少多少次调用才计算失败率
+         */
+        private Integer minimumCalls;
+
+        /**
+         * 统计窗口(毫秒)
+         */
+        private Long window;
+
+        /**
+         * 熔断打开的持续时间(毫秒)
+         */
+        private Long openDuration;
+
+        /**
+         * 半开状态的探测调用数
+         */
+        private Integer halfOpenCalls;
+
+        /**
+         * GET方法被拒绝或失败时是否以最近一次成功的响应兜底
+         */
+        private Boolean lastKnownGood;
+
+        /**
+         * 兜底响应的最长保留时间(毫秒)
+         */
+        private Long lastKnownGoodTtl;
+
+        static Policy defaults() {
+            Policy policy = new Policy();
+            policy.setMaxConcurrent(100);
+            policy.setMethodMaxConcurrent(50);
+            policy.setMaxWait(0L);
+            policy.setFailureRateThreshold(0.5);
+            policy.setSlowCallRateThreshold(1.1);
+            policy.setSlowCallDuration(3_000L);
+            policy.setMinimumCalls(20);
+            policy.setWindow(10_000L);
+            policy.setOpenDuration(5_000L);
+            policy.setHalfOpenCalls(3);
+            policy.setLastKnownGood(true);
+            policy.setLastKnownGoodTtl(600_000L);
+            return policy;
+        }
+
+        /**
+         * 以 override 中不为 null 的项覆盖本配置
+         *
+         * @param override 下一级配置
+         * @return 合并后的新配置
+         */
+        Policy merge(Policy override) {
+            Policy merged = new Policy();
+            merged.setMaxConcurrent(pick(override.getMaxConcurrent(), maxConcurrent));
+            merged.setMethodMaxConcurrent(pick(override.getMethodMaxConcurrent(), methodMaxConcurrent));
+            merged.setMaxWait(pick(override.getMaxWait(), maxWait));
+            merged.setFailureRateThreshold(pick(override.getFailureRateThreshold(), failureRateThreshold));
+            merged.setSlowCallRateThreshold(pick(override.getSlowCallRateThreshold(), slowCallRateThreshold));
+            merged.setSlowCallDuration(pick(override.getSlowCallDuration(), slowCallDuration));
+            merged.setMinimumCalls(pick(override.getMinimumCalls(), minimumCalls));
+            merged.setWindow(pick(override.getWindow(), window));
+            merged.setOpenDuration(pick(override.getOpenDuration(), openDuration));
+            merged.setHalfOpenCalls(pick(override.getHalfOpenCalls(), halfOpenCalls));
+            merged.setLastKnownGood(pick(override.getLastKnownGood(), lastKnownGood));
+            merged.setLastKnownGoodTtl(pick(override.getLastKnownGoodTtl(), lastKnownGoodTtl));
+            return merged;
+        }
+
+        private static <T> T pick(T override, T base) {
+            return override != null ? override : base;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.serviceClient.config;
+
+import com.example.serviceClient.transport.CancellableCall;
+import com.example.serviceClient.transport.ConnectionReuseListener;
+import com.example.serviceClient.transport.PooledFeignClient;
+import feign.Client;
+import feign.Request;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign 的 OkHttp 连接池传输
+ * <p>
+ * 替换 openfeign 默认的 {@link Client}，负载均衡仍由 {@link FeignBlockingLoadBalancerClient} 完成，
+ * 其下的实际请求改由共享连接池的 OkHttp 发出，并按实例限制在途请求数。
+ * 默认使用 HTTP/1.1 长连接，feign.transport.http2=true 时改用 h2c，每个实例只保留一条多路复用的连接。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "feign.transport", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FeignTransportConfig {
+
+    @Bean(destroyMethod = "evictAll")
+    public ConnectionPool feignConnectionPool(FeignTransportProperties properties) {
+        return new ConnectionPool(properties.getMaxIdleConnections(), properties.getKeepAlive(), TimeUnit.MILLISECONDS);
+    }
+
+    @Bean
+    public ConnectionReuseListener feignConnectionReuseListener() {
+        return new ConnectionReuseListener();
+    }
+
+    @Bean
+    public OkHttpClient feignOkHttpClient(FeignTransportProperties properties, ConnectionPool feignConnectionPool,
+                                          ConnectionReuseListener feignConnectionReuseListener) {
+        List<Protocol> protocols = Boolean.TRUE.equals(properties.getHttp2())
+                ? List.of(Protocol.H2_PRIOR_KNOWLEDGE) : List.of(Protocol.HTTP_1_1);
+        return new OkHttpClient.Builder()
+                .connectionPool(feignConnectionPool)
+                .protocols(protocols)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeout()))
+                .readTimeout(Duration.ofMillis(properties.getReadTimeout()))
+                .followRedirects(true)
+                //登记调用以便对冲的落败请求被真正取消
+                .eventListenerFactory(call -> {
+                    CancellableCall.register(call);
+                    return feignConnectionReuseListener;
+                })
+                .build();
+    }
+
+    /**
+     * 各 Feign 客户端的默认超时，与 OkHttp 的超时一致，避免每次请求按 Feign 默认的10秒/60秒重建客户端
+     */
+    @Bean
+    public Request.Options feignRequestOptions(FeignTransportProperties properties) {
+        return new Request.Options(properties.getConnectTimeout(), TimeUnit.MILLISECONDS,
+                properties.getReadTimeout(), TimeUnit.MILLISECONDS, true);
+    }
+
+    @Bean
+    public Client feignClient(FeignTransportProperties properties, OkHttpClient feignOkHttpClient,
+                              ConnectionReuseListener feignConnectionReuseListener,
+                              LoadBalancerClient loadBalancerClient, LoadBalancerClientFactory loadBalancerClientFactory,
+                              ObjectProvider<LoadBalancerFeignRequestTransformer> transformers,
+                              ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        PooledFeignClient pooled = new PooledFeignClient(new feign.okhttp.OkHttpClient(feignOkHttpClient),
+                properties.getMaxRequestsPerTarget(), properties.getAcquireTimeout());
+        meterRegistryProvider.ifAvailable(registry ->
+                pooled.bindTo(registry, feignOkHttpClient.connectionPool(), feignConnectionReuseListener));
+        return new FeignBlockingLoadBalancerClient(pooled, loadBalancerClient, loadBalancerClientFactory,
+                transformers.orderedStream().toList());
+    }
+}
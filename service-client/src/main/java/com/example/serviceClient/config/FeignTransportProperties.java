@@ -0,0 +1,57 @@
+package com.example.serviceClient.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feign 连接池传输配置
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "feign.transport")
+@Component
+public class FeignTransportProperties {
+
+    /**
+     * 是否以 OkHttp 连接池替换 Feign 默认的 HttpURLConnection 客户端
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 是否以 h2c(明文HTTP/2，先验知识方式)访问下游，开启前下游服务需设置 server.http2.enabled=true
+     */
+    private Boolean http2 = false;
+
+    /**
+     * 连接池最多保留的空闲连接数(所有下游实例共享)
+     */
+    private Integer maxIdleConnections = 32;
+
+    /**
+     * 空闲连接的保活时间(毫秒)
+     */
+    private Long keepAlive = 300_000L;
+
+    /**
+     * 建连超时(毫秒)，可被 spring.cloud.openfeign.client.config 中的同名配置按客户端覆盖
+     */
+    private Long connectTimeout = 2_000L;
+
+    /**
+     * 读超时(毫秒)，可被 spring.cloud.openfeign.client.config 中的同名配置按客户端覆盖
+     */
+    private Long readTimeout = 5_000L;
+
+    /**
+     * 单个下游实例(host:port)的最大在途请求数
+     */
+    private Integer maxRequestsPerTarget = 64;
+
+    /**
+     * 实例在途请求已满时的最长等待时间(毫秒)，超时后本次调用以IO异常失败
+     */
+    private Long acquireTimeout = 200L;
+}
@@ -0,0 +1,270 @@
+package com.example.serviceClient.hedge;
+
+import com.example.common.metrics.LatencyHistogram;
+import com.example.common.resilience.RetryBudget;
+import com.example.serviceClient.config.FeignHedgeProperties;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 为 {@link Hedged} 标注或在 feign.hedge.clients 中列出的 Feign 方法发出对冲请求
+ * <p>
+ * 对冲包在舱壁与熔断({@link com.example.serviceClient.resilience.ResilienceCapability})之外，
+ * 两次尝试各自经过负载均衡、舱壁与熔断。所有方法共用一个对冲预算，下游整体变慢时对冲流量不超过
+ * 原始流量的 budgetRatio，避免把负载翻倍。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+@Order(100)
+@ConditionalOnProperty(prefix = "feign.hedge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class HedgeCapability implements Capability {
+
+    private static final String METRIC_PREFIX = "feign.hedge";
+
+    /**
+     * 对冲延迟的重新计算间隔
+     */
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Resource
+    private FeignHedgeProperties properties;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private MeterRegistry registry;
+
+    /**
+     * 服务名#方法名 -> 方法的对冲状态
+     */
+    private final Map<String, HedgedMethod> methods = new ConcurrentHashMap<>();
+
+    private volatile RetryBudget budget;
+
+    /**
+     * 配置刷新前的预算累计放弃次数
+     */
+    private volatile long exhaustedBeforeRefresh;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        budget = newBudget();
+        executor = new ThreadPoolExecutor(0, properties.getMaxThreads(), 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreads("feign-hedge-"));
+        registry = meterRegistryProvider.getIfAvailable();
+        if (registry != null) {
+            FunctionCounter.builder(METRIC_PREFIX + ".budget.exhausted", this,
+                            capability -> capability.exhaustedBeforeRefresh + capability.budget.getExhausted())
+                    .description("因对冲预算耗尽而未发出的对冲请求数")
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".threads.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("执行中的对冲调用线程数")
+                    .register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return new HedgedClient(client, this);
+    }
+
+    /**
+     * 配置刷新后重建对冲预算，并重新判断各方法是否对冲
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        RetryBudget previous = budget;
+        budget = newBudget();
+        exhaustedBeforeRefresh += previous.getExhausted();
+        executor.setMaximumPoolSize(properties.getMaxThreads());
+        methods.values().forEach(method -> method.enabled = isHedged(method.clientName, method.javaMethod));
+        log.info("Feign 对冲配置已刷新，对冲方法{}个",
+                methods.values().stream().filter(method -> method.enabled).count());
+    }
+
+    private RetryBudget newBudget() {
+        return new RetryBudget(properties.getBudgetRatio(), properties.getMinHedgesPerSecond(),
+                TimeUnit.MILLISECONDS.toNanos(properties.getBudgetWindow()));
+    }
+
+    /**
+     * 请求所属方法的对冲状态，无法识别方法或方法不对冲时返回 null
+     */
+    HedgedMethod methodOf(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        if (template == null || template.feignTarget() == null || template.methodMetadata() == null
+                || template.methodMetadata().method() == null) {
+            return null;
+        }
+        String clientName = template.feignTarget().name();
+        Method javaMethod = template.methodMetadata().method();
+        HedgedMethod method = methods.computeIfAbsent(clientName + "#" + javaMethod.getName(),
+                key -> newMethod(clientName, javaMethod));
+        return method.enabled ? method : null;
+    }
+
+    private boolean isHedged(String clientName, Method javaMethod) {
+        if (javaMethod.isAnnotationPresent(Hedged.class)) {
+            return true;
+        }
+        List<String> names = properties.getClients().get(clientName);
+        return names != null && names.contains(javaMethod.getName());
+    }
+
+    private HedgedMethod newMethod(String clientName, Method javaMethod) {
+        HedgedMethod method = new HedgedMethod(clientName, javaMethod);
+        method.enabled = isHedged(clientName, javaMethod);
+        if (registry != null) {
+            String methodName = javaMethod.getName();
+            method.hedges = Counter.builder(METRIC_PREFIX + ".sent")
+                    .tags("client", clientName, "method", methodName)
+                    .description("发出的对冲请求数")
+                    .register(registry);
+            method.wins = Counter.builder(METRIC_PREFIX + ".wins")
+                    .tags("client", clientName, "method", methodName)
+                    .description("对冲请求先于原请求返回的次数")
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".delay", method,
+                            m -> m.delayNanos <= 0 ? -1D : m.delayNanos / 1e6)
+                    .tags("client", clientName, "method", methodName)
+                    .description("当前的对冲延迟(毫秒)，-1表示样本不足未对冲")
+                    .register(registry);
+        }
+        return method;
+    }
+
+    /**
+     * 方法当前的对冲延迟，每秒按最近的耗时分位重新计算一次
+     *
+     * @return 对冲延迟(纳秒)，小于等于0表示不对冲
+     */
+    long delayOf(HedgedMethod method) {
+        long now = System.nanoTime();
+        if (now - method.computedAt < DELAY_REFRESH_NANOS) {
+            return method.delayNanos;
+        }
+        synchronized (method) {
+            if (now - method.computedAt < DELAY_REFRESH_NANOS) {
+                return method.delayNanos;
+            }
+            if (now - method.rotatedAt >= TimeUnit.MILLISECONDS.toNanos(properties.getLatencyWindow())) {
+                method.previous = method.current;
+                method.current = new LatencyHistogram();
+                method.rotatedAt = now;
+            }
+            LatencyHistogram.Snapshot snapshot = method.current.snapshot();
+            if (method.previous != null) {
+                snapshot = snapshot.merge(method.previous.snapshot());
+            }
+            long nanos = -1L;
+            if (snapshot.getCount() >= properties.getMinSamples()) {
+                Hedged hedged = method.javaMethod.getAnnotation(Hedged.class);
+                double percentile = hedged != null && hedged.percentile() >= 0
+                        ? hedged.percentile() : properties.getPercentile();
+                long minDelay = hedged != null && hedged.minDelay() >= 0 ? hedged.minDelay() : properties.getMinDelay();
+                nanos = Math.max(TimeUnit.MICROSECONDS.toNanos(snapshot.percentile(percentile)),
+                        TimeUnit.MILLISECONDS.toNanos(minDelay));
+            }
+            method.delayNanos = nanos;
+            method.computedAt = now;
+            return nanos;
+        }
+    }
+
+    RetryBudget budget() {
+        return budget;
+    }
+
+    ExecutorService executor() {
+        return executor;
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * 单个方法的耗时样本与对冲延迟
+     */
+    static final class HedgedMethod {
+
+        final String clientName;
+
+        final Method javaMethod;
+
+        volatile boolean enabled;
+
+        volatile LatencyHistogram current = new LatencyHistogram();
+
+        volatile LatencyHistogram previous;
+
+        volatile long rotatedAt = System.nanoTime();
+
+        volatile long delayNanos = -1L;
+
+        volatile long computedAt = System.nanoTime() - DELAY_REFRESH_NANOS;
+
+        Counter hedges;
+
+        Counter wins;
+
+        private HedgedMethod(String clientName, Method javaMethod) {
+            this.clientName = clientName;
+            this.javaMethod = javaMethod;
+        }
+
+        void record(long nanos) {
+            current.recordNanos(nanos);
+        }
+
+        void onHedge() {
+            if (hedges != null) {
+                hedges.increment();
+            }
+        }
+
+        void onHedgeWon() {
+            if (wins != null) {
+                wins.increment();
+            }
+        }
+    }
+}
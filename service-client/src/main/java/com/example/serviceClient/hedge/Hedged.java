@@ -0,0 +1,31 @@
+package com.example.serviceClient.hedge;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记 Feign 方法可对冲：调用超过该方法耗时的指定分位仍未返回时，再发一次请求，先返回者胜出
+ * <p>
+ * 只应标注在幂等的只读方法上，参数见 {@link com.example.serviceClient.config.FeignHedgeProperties}。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+
+    /**
+     * 触发对冲的耗时分位(0~1)，小于0时取 feign.hedge.percentile
+     */
+    double percentile() default -1D;
+
+    /**
+     * 对冲延迟下限(毫秒)，小于0时取 feign.hedge.min-delay
+     */
+    long minDelay() default -1L;
+}
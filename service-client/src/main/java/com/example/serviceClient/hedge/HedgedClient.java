@@ -0,0 +1,274 @@
+package com.example.serviceClient.hedge;
+
+import com.example.serviceClient.transport.CancellableCall;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 对可对冲的方法发出对冲请求的 Feign 客户端
+ * <p>
+ * 原请求在对冲线程上执行，调用方等待至对冲延迟；仍未返回且预算允许时再发一次请求，
+ * 由负载均衡重新选择实例(原实例在途数更高，通常会选中另一个实例)。先返回非5xx响应者胜出，
+ * 落败的请求通过 {@link CancellableCall} 取消其 OkHttp 调用，阻塞的读取随即失败并归还舱壁与实例名额，
+ * 已返回的落败响应被关闭以归还连接；两次都失败时按先失败者的结果返回或抛出。
+ * 未启用 feign.transport 时无法取消 OkHttp 调用，落败请求只被中断，名额要到其响应返回或读超时后才归还。
+ * 对冲线程耗尽时在调用方线程上直接调用，不对冲。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class HedgedClient implements Client {
+
+    private final Client delegate;
+
+    private final HedgeCapability capability;
+
+    public HedgedClient(Client delegate, HedgeCapability capability) {
+        this.delegate = delegate;
+        this.capability = capability;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        HedgeCapability.HedgedMethod method = capability.methodOf(request);
+        if (method == null) {
+            return delegate.execute(request, options);
+        }
+        capability.budget().onRequest();
+        long delayNanos = capability.delayOf(method);
+        if (delayNanos <= 0) {
+            return timed(method, request, options);
+        }
+        Race race = new Race();
+        Running primary = race.start(() -> timed(method, request, options), false, capability);
+        if (primary == null) {
+            return timed(method, request, options);
+        }
+        Running hedge = null;
+        Attempt winner = null;
+        try {
+            winner = race.await(delayNanos);
+            if (winner == null && capability.budget().tryAcquire()) {
+                hedge = race.start(() -> timed(method, request, options), true, capability);
+                if (hedge != null) {
+                    method.onHedge();
+                }
+            }
+            if (winner == null) {
+                winner = race.await(-1L);
+            }
+            if (winner.hedge()) {
+                method.onHedgeWon();
+            }
+            return winner.response();
+        } finally {
+            //胜负已分(或调用方被中断)，取消落败的请求；胜出者的响应体仍待读取，不能取消
+            if (winner == null || winner.hedge()) {
+                primary.cancel();
+            }
+            if (hedge != null && (winner == null || !winner.hedge())) {
+                hedge.cancel();
+            }
+            if (winner == null) {
+                race.discard();
+            }
+        }
+    }
+
+    private Response timed(HedgeCapability.HedgedMethod method, Request request, Request.Options options)
+            throws IOException {
+        long start = System.nanoTime();
+        Response response = delegate.execute(request, options);
+        if (response.status() >= 200 && response.status() < 300) {
+            method.record(System.nanoTime() - start);
+        }
+        return response;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+
+        Response execute() throws IOException;
+    }
+
+    /**
+     * 一次尝试的结果
+     *
+     * @param response 响应
+     * @param hedge    是否为对冲请求
+     */
+    private record Attempt(Response response, boolean hedge) {
+    }
+
+    /**
+     * 在对冲线程上执行中的一次尝试
+     *
+     * @param future      对冲线程上的任务
+     * @param cancellable 尝试发出的 OkHttp 调用
+     */
+    private record Running(Future<?> future, CancellableCall cancellable) {
+
+        /**
+         * 中断对冲线程并取消其 OkHttp 调用，阻塞的读取随即失败，舱壁与实例名额随之归还
+         */
+        void cancel() {
+            future.cancel(true);
+            cancellable.cancel();
+        }
+    }
+
+    /**
+     * 原请求与对冲请求的竞争
+     */
+    private static final class Race {
+
+        private final CompletableFuture<Attempt> winner = new CompletableFuture<>();
+
+        /**
+         * 已发出的尝试数，由 this 保护
+         */
+        private int started;
+
+        /**
+         * 已失败的尝试数，由 this 保护
+         */
+        private int failed;
+
+        /**
+         * 第一次失败的响应或异常，由 this 保护
+         */
+        private Attempt firstFailure;
+
+        private Throwable firstError;
+
+        /**
+         * 在对冲线程上发出一次尝试
+         *
+         * @return 执行中的尝试，对冲线程耗尽时返回 null
+         */
+        Running start(Call call, boolean hedge, HedgeCapability capability) {
+            synchronized (this) {
+                started++;
+            }
+            CancellableCall cancellable = new CancellableCall();
+            try {
+                return new Running(capability.executor().submit(() -> run(call, hedge, cancellable)), cancellable);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    started--;
+                }
+                return null;
+            }
+        }
+
+        private void run(Call call, boolean hedge, CancellableCall cancellable) {
+            Response response;
+            cancellable.enter();
+            try {
+                response = call.execute();
+            } catch (Throwable e) {
+                onFailure(null, e);
+                return;
+            } finally {
+                cancellable.exit();
+            }
+            if (response.status() >= 500) {
+                onFailure(new Attempt(response, hedge), null);
+            } else {
+                onSuccess(new Attempt(response, hedge));
+            }
+        }
+
+        /**
+         * 先成功者胜出，并关闭此前保留的失败响应；已有胜出者时关闭本次响应
+         */
+        private void onSuccess(Attempt attempt) {
+            Attempt close;
+            synchronized (this) {
+                if (winner.complete(attempt)) {
+                    close = firstFailure;
+                    firstFailure = null;
+                } else {
+                    close = attempt;
+                }
+            }
+            if (close != null) {
+                close.response().close();
+            }
+        }
+
+        /**
+         * 保留第一次失败，所有尝试都失败时以其结束竞争；已有胜出者时直接关闭本次响应
+         */
+        private void onFailure(Attempt attempt, Throwable error) {
+            Attempt close = attempt;
+            synchronized (this) {
+                failed++;
+                if (!winner.isDone()) {
+                    if (firstFailure == null && firstError == null) {
+                        firstFailure = attempt;
+                        firstError = error;
+                        close = null;
+                    }
+                    if (failed == started) {
+                        if (firstError != null) {
+                            winner.completeExceptionally(firstError);
+                        } else {
+                            winner.complete(firstFailure);
+                        }
+                        firstFailure = null;
+                    }
+                }
+            }
+            if (close != null) {
+                close.response().close();
+            }
+        }
+
+        /**
+         * 调用方不再等待结果，之后胜出的响应直接关闭
+         */
+        void discard() {
+            winner.thenAccept(attempt -> attempt.response().close());
+        }
+
+        /**
+         * 等待胜出的结果
+         *
+         * @param timeoutNanos 最长等待时间(纳秒)，小于0表示一直等待
+         * @return 胜出的结果，超时返回 null
+         */
+        Attempt await(long timeoutNanos) throws IOException {
+            try {
+                return timeoutNanos < 0 ? winner.get() : winner.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待对冲请求时被中断");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new IOException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.serviceClient.resilience;
+
+import java.io.IOException;
+
+/**
+ * 调用被舱壁或熔断拒绝且没有可用的兜底响应
+ * <p>
+ * 继承 {@link IOException}，由 Feign 包装为 RetryableException，可从其 cause 识别。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class FeignRejectedException extends IOException {
+
+    /**
+     * 拒绝原因：bulkhead 或 circuit-open
+     */
+    private final String reason;
+
+    public FeignRejectedException(String methodKey, String reason) {
+        super(methodKey + "调用被拒绝:" + reason);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.serviceClient.resilience;
+
+import com.example.common.resilience.CircuitBreaker;
+import com.example.serviceClient.config.FeignResilienceProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 为所有 Feign 客户端加上舱壁、熔断与最近成功响应兜底
+ * <p>
+ * 每个客户端(服务名)一个舱壁，每个方法一个舱壁与一个熔断器，参数见 {@link FeignResilienceProperties}。
+ * 配置刷新后按新参数重建发生变化的舱壁与熔断器，重建的熔断器从关闭状态开始。
+ * 排在对冲({@link com.example.serviceClient.hedge.HedgeCapability})之前，即包在其内层，对冲请求同样计入舱壁与熔断。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+@Order(0)
+@ConditionalOnProperty(prefix = "feign.resilience", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResilienceCapability implements Capability {
+
+    private static final String METRIC_PREFIX = "feign.resilience";
+
+    @Resource
+    private FeignResilienceProperties properties;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private MeterRegistry registry;
+
+    /**
+     * 服务名 -> 客户端舱壁
+     */
+    private final Map<String, Bulkhead> clientBulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * 服务名#方法名 -> 方法的舱壁与熔断
+     */
+    private final Map<String, MethodGuard> guards = new ConcurrentHashMap<>();
+
+    /**
+     * 请求键 -> 最近一次成功的响应
+     */
+    private Cache<String, CachedResponse> lastKnownGood;
+
+    @PostConstruct
+    public void init() {
+        registry = meterRegistryProvider.getIfAvailable();
+        lastKnownGood = Caffeine.newBuilder()
+                .maximumSize(properties.getLastKnownGoodMaxSize())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return new ResilientClient(client, this);
+    }
+
+    /**
+     * 配置刷新后重建参数发生变化的舱壁与熔断器
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onRefresh() {
+        guards.replaceAll((key, guard) -> {
+            FeignResilienceProperties.Policy policy = properties.resolve(guard.clientName, guard.methodName);
+            return policy.equals(guard.policy) ? guard : newGuard(guard.clientName, guard.methodName, policy);
+        });
+        log.info("Feign 舱壁与熔断配置已刷新，共{}个方法", guards.size());
+    }
+
+    /**
+     * 请求所属方法的舱壁与熔断，无法识别方法时返回 null
+     */
+    MethodGuard guardOf(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        if (template == null || template.feignTarget() == null || template.methodMetadata() == null
+                || template.methodMetadata().method() == null) {
+            return null;
+        }
+        String clientName = template.feignTarget().name();
+        String methodName = template.methodMetadata().method().getName();
+        return guards.computeIfAbsent(clientName + "#" + methodName,
+                key -> newGuard(clientName, methodName, properties.resolve(clientName, methodName)));
+    }
+
+    private MethodGuard newGuard(String clientName, String methodName, FeignResilienceProperties.Policy policy) {
+        String key = clientName + "#" + methodName;
+        Bulkhead clientBulkhead = clientBulkheads.compute(clientName, (name, existing) ->
+                existing != null && existing.limit == policy.getMaxConcurrent() ? existing : new Bulkhead(policy.getMaxConcurrent()));
+        CircuitBreaker breaker = new CircuitBreaker(policy.getFailureRateThreshold(), policy.getSlowCallRateThreshold(),
+                TimeUnit.MILLISECONDS.toNanos(policy.getSlowCallDuration()), policy.getMinimumCalls(),
+                TimeUnit.MILLISECONDS.toNanos(policy.getWindow()), TimeUnit.MILLISECONDS.toNanos(policy.getOpenDuration()),
+                policy.getHalfOpenCalls(), System::nanoTime, (from, to) -> onTransition(clientName, methodName, from, to));
+        MethodGuard guard = new MethodGuard(clientName, methodName, policy, clientBulkhead,
+                new Bulkhead(policy.getMethodMaxConcurrent()), breaker);
+        if (registry != null) {
+            guard.bulkheadRejections = rejectionCounter(clientName, methodName, "bulkhead");
+            guard.circuitRejections = rejectionCounter(clientName, methodName, "circuit-open");
+            guard.fallbacks = Counter.builder(METRIC_PREFIX + ".fallbacks")
+                    .tags("client", clientName, "method", methodName)
+                    .description("以最近一次成功响应兜底的调用数")
+                    .register(registry);
+            //按键读取当前的熔断器，配置刷新重建后仍指向新的实例
+            Gauge.builder(METRIC_PREFIX + ".breaker.state", guards, map -> stateOf(map.get(key)))
+                    .tags("client", clientName, "method", methodName)
+                    .description("熔断器状态：0关闭，1打开，2半开")
+                    .register(registry);
+        }
+        return guard;
+    }
+
+    private Counter rejectionCounter(String clientName, String methodName, String reason) {
+        return Counter.builder(METRIC_PREFIX + ".rejected")
+                .tags("client", clientName, "method", methodName, "reason", reason)
+                .description("被舱壁或熔断拒绝的调用数")
+                .register(registry);
+    }
+
+    private static double stateOf(MethodGuard guard) {
+        if (guard == null) {
+            return 0D;
+        }
+        return switch (guard.breaker.getState()) {
+            case CLOSED -> 0D;
+            case OPEN -> 1D;
+            case HALF_OPEN -> 2D;
+        };
+    }
+
+    private void onTransition(String clientName, String methodName, CircuitBreaker.State from, CircuitBreaker.State to) {
+        log.warn("{}#{} 熔断器 {} -> {}", clientName, methodName, from, to);
+        if (registry != null) {
+            registry.counter(METRIC_PREFIX + ".breaker.transitions",
+                    "client", clientName, "method", methodName, "from", from.name(), "to", to.name()).increment();
+        }
+    }
+
+    CachedResponse lastKnownGood(String requestKey) {
+        return lastKnownGood.getIfPresent(requestKey);
+    }
+
+    void remember(String requestKey, CachedResponse response) {
+        lastKnownGood.put(requestKey, response);
+    }
+
+    /**
+     * 固定上限的舱壁
+     */
+    static final class Bulkhead {
+
+        private final int limit;
+
+        private final Semaphore permits;
+
+        private Bulkhead(int limit) {
+            this.limit = limit;
+            this.permits = new Semaphore(limit);
+        }
+
+        boolean tryAcquire(long maxWaitMillis) {
+            if (maxWaitMillis <= 0) {
+                return permits.tryAcquire();
+            }
+            try {
+                return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+    }
+
+    /**
+     * 单个方法的舱壁与熔断
+     */
+    static final class MethodGuard {
+
+        final String clientName;
+
+        final String methodName;
+
+        final FeignResilienceProperties.Policy policy;
+
+        final Bulkhead clientBulkhead;
+
+        final Bulkhead methodBulkhead;
+
+        final CircuitBreaker breaker;
+
+        Counter bulkheadRejections;
+
+        Counter circuitRejections;
+
+        Counter fallbacks;
+
+        private MethodGuard(String clientName, String methodName, FeignResilienceProperties.Policy policy,
+                            Bulkhead clientBulkhead, Bulkhead methodBulkhead, CircuitBreaker breaker) {
+            this.clientName = clientName;
+            this.methodName = methodName;
+            this.policy = policy;
+            this.clientBulkhead = clientBulkhead;
+            this.methodBulkhead = methodBulkhead;
+            this.breaker = breaker;
+        }
+
+        String key() {
+            return clientName + "#" + methodName;
+        }
+
+        void onRejected(String reason) {
+            Counter counter = "bulkhead".equals(reason) ? bulkheadRejections : circuitRejections;
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+
+        void onFallback() {
+            if (fallbacks != null) {
+                fallbacks.increment();
+            }
+        }
+    }
+
+    /**
+     * 缓存的成功响应
+     *
+     * @param status   状态码
+     * @param reason   状态描述
+     * @param headers  响应头
+     * @param body     响应体
+     * @param ttlNanos 保留时间(纳秒)
+     */
+    record CachedResponse(int status, String reason, Map<String, Collection<String>> headers, byte[] body,
+                          long ttlNanos) {
+    }
+}
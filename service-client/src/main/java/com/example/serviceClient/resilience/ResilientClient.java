@@ -0,0 +1,148 @@
+package com.example.serviceClient.resilience;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 依次经过熔断器、客户端舱壁与方法舱壁后才调用下游的 Feign 客户端
+ * <p>
+ * IO异常与5xx响应计为失败。GET方法开启 lastKnownGood 时缓冲并记录每次2xx响应，
+ * 之后同一请求被拒绝或失败时以该响应兜底，并带上 {@link #FALLBACK_HEADER} 响应头；
+ * 没有可用的兜底响应时，拒绝以 {@link FeignRejectedException} 抛出，失败按原样返回或抛出。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class ResilientClient implements Client {
+
+    /**
+     * 标记兜底响应的响应头
+     */
+    public static final String FALLBACK_HEADER = "X-Fallback";
+
+    private final Client delegate;
+
+    private final ResilienceCapability capability;
+
+    public ResilientClient(Client delegate, ResilienceCapability capability) {
+        this.delegate = delegate;
+        this.capability = capability;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        ResilienceCapability.MethodGuard guard = capability.guardOf(request);
+        if (guard == null) {
+            return delegate.execute(request, options);
+        }
+        String requestKey = request.httpMethod() == Request.HttpMethod.GET
+                && Boolean.TRUE.equals(guard.policy.getLastKnownGood()) ? guard.key() + " " + request.url() : null;
+        if (!guard.breaker.tryAcquire()) {
+            return rejected(guard, request, requestKey, "circuit-open");
+        }
+        long maxWait = guard.policy.getMaxWait();
+        if (!guard.clientBulkhead.tryAcquire(maxWait)) {
+            guard.breaker.onIgnored();
+            return rejected(guard, request, requestKey, "bulkhead");
+        }
+        if (!guard.methodBulkhead.tryAcquire(maxWait)) {
+            guard.clientBulkhead.release();
+            guard.breaker.onIgnored();
+            return rejected(guard, request, requestKey, "bulkhead");
+        }
+        long start = System.nanoTime();
+        try {
+            Response response;
+            try {
+                response = delegate.execute(request, options);
+            } catch (IOException | RuntimeException e) {
+                //被取消的对冲落败请求不反映下游的健康状况，不计入熔断也不兜底
+                if (Thread.currentThread().isInterrupted()) {
+                    guard.breaker.onIgnored();
+                    throw e;
+                }
+                guard.breaker.onFailure(System.nanoTime() - start);
+                Response fallback = fallback(guard, request, requestKey);
+                if (fallback != null) {
+                    return fallback;
+                }
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (response.status() >= 500) {
+                guard.breaker.onFailure(elapsed);
+                Response fallback = fallback(guard, request, requestKey);
+                if (fallback != null) {
+                    response.close();
+                    return fallback;
+                }
+                return response;
+            }
+            guard.breaker.onSuccess(elapsed);
+            if (requestKey != null && response.status() >= 200 && response.status() < 300) {
+                return remember(guard, requestKey, response);
+            }
+            return response;
+        } finally {
+            guard.methodBulkhead.release();
+            guard.clientBulkhead.release();
+        }
+    }
+
+    private Response rejected(ResilienceCapability.MethodGuard guard, Request request, String requestKey,
+                              String reason) throws FeignRejectedException {
+        guard.onRejected(reason);
+        Response fallback = fallback(guard, request, requestKey);
+        if (fallback != null) {
+            return fallback;
+        }
+        throw new FeignRejectedException(guard.key(), reason);
+    }
+
+    private Response fallback(ResilienceCapability.MethodGuard guard, Request request, String requestKey) {
+        if (requestKey == null) {
+            return null;
+        }
+        ResilienceCapability.CachedResponse cached = capability.lastKnownGood(requestKey);
+        if (cached == null) {
+            return null;
+        }
+        guard.onFallback();
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(cached.headers());
+        headers.put(FALLBACK_HEADER, List.of("last-known-good"));
+        return Response.builder()
+                .status(cached.status())
+                .reason(cached.reason())
+                .headers(headers)
+                .request(request)
+                .body(cached.body())
+                .build();
+    }
+
+    /**
+     * 缓冲响应体并记录，返回可再次读取的响应
+     */
+    private Response remember(ResilienceCapability.MethodGuard guard, String requestKey, Response response)
+            throws IOException {
+        if (response.body() == null) {
+            return response;
+        }
+        byte[] body;
+        try (InputStream in = response.body().asInputStream()) {
+            body = Util.toByteArray(in);
+        }
+        capability.remember(requestKey, new ResilienceCapability.CachedResponse(response.status(), response.reason(),
+                response.headers(), body, TimeUnit.MILLISECONDS.toNanos(guard.policy.getLastKnownGoodTtl())));
+        return response.toBuilder().body(body).build();
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.serviceClient.service.user;
+
+import com.example.model.user.pojo.User;
+import com.example.common.exception.BusinessException;
+import com.example.serviceClient.config.FeignBatchProperties;
+import com.example.serviceClient.config.FeignTransportProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.example.common.result.ErrorCode.UPSTREAM_UNAVAILABLE;
+
+/**
+ * 合并并发的按id查询用户
+ * <p>
+ * 收集窗口内(maxWait 毫秒或攒满 maxBatchSize 个id)各线程的 {@link #load} 合并为一次
+ * {@link UserFeignClient#getUsersByIds} 调用，按id完成各自的 {@link CompletableFuture}，
+ * 同一窗口内的相同id共享一个结果，不存在的用户结果为 null。
+ * 窗口在所有调用方之间共享：单个请求内的查询是串行的，只有跨请求的并发查询才能合并。
+ * 批量调用在独立线程上执行，不携带调用方线程的上下文。等待执行的批次有上限，已满时该批次立即失败；
+ * {@link #getUserById} 的等待时间也有上限，下游变慢时调用方线程不会无限阻塞。
+ * 批量调用是 POST，不经过 Feign 层按 URL 缓存的 GET 兜底，因此在这里按id记录最近一次成功的结果，
+ * 批次失败、被拒绝或等待超时时逐个id以其兜底，没有记录的id仍按失败处理。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+public class UserBatchLoader {
+
+    @Resource
+    private UserFeignClient userFeignClient;
+
+    @Resource
+    private FeignBatchProperties properties;
+
+    @Resource
+    private FeignTransportProperties transportProperties;
+
+    private final Object lock = new Object();
+
+    /**
+     * 当前窗口中的用户id -> 结果，由 lock 保护
+     */
+    private Map<Long, CompletableFuture<User>> pending = new LinkedHashMap<>();
+
+    /**
+     * 当前窗口的到期发送任务，由 lock 保护
+     */
+    private ScheduledFuture<?> flushTask;
+
+    private ScheduledExecutorService scheduler;
+
+    private ThreadPoolExecutor dispatcher;
+
+    /**
+     * 用户id -> 最近一次成功查询的结果，未开启兜底时为 null
+     */
+    private Cache<Long, Optional<User>> lastKnownGood;
+
+    @PostConstruct
+    public void init() {
+        if (properties.getLastKnownGoodTtl() > 0) {
+            lastKnownGood = Caffeine.newBuilder()
+                    .maximumSize(properties.getLastKnownGoodMaxSize())
+                    .expireAfterWrite(properties.getLastKnownGoodTtl(), TimeUnit.MILLISECONDS)
+                    .build();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("user-batch-timer-"));
+        dispatcher = new ThreadPoolExecutor(properties.getConcurrency(), properties.getConcurrency(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueSize()),
+                daemonThreads("user-batch-"));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        dispatcher.shutdown();
+    }
+
+    /**
+     * 按id获取用户，阻塞到所在批次返回，最多等待 feign.batch.timeout
+     *
+     * @param userId 用户id
+     * @return {@link User}，不存在时为 null
+     * @throws BusinessException 等待超时或批量调用被拒绝且没有兜底结果
+     */
+    public User getUserById(Long userId) {
+        try {
+            return load(userId).get(timeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            Optional<User> fallback = fallbackOf(userId);
+            if (fallback != null) {
+                return fallback.orElse(null);
+            }
+            throw new BusinessException(UPSTREAM_UNAVAILABLE.getCode(), "批量查询用户超时");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(UPSTREAM_UNAVAILABLE.getCode(), "等待批量查询用户时被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new BusinessException(UPSTREAM_UNAVAILABLE.getCode(), "批量查询用户排队已满");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private long timeoutMillis() {
+        Long timeout = properties.getTimeout();
+        if (timeout != null) {
+            return timeout;
+        }
+        return transportProperties.getConnectTimeout() + transportProperties.getReadTimeout()
+                + transportProperties.getAcquireTimeout() + properties.getMaxWait();
+    }
+
+    /**
+     * 把id加入当前窗口
+     *
+     * @param userId 用户id
+     * @return {@link CompletableFuture}<{@link User}>，不存在时以 null 完成，批量调用失败时以其异常完成
+     */
+    public CompletableFuture<User> load(Long userId) {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            try {
+                return CompletableFuture.completedFuture(userFeignClient.getUserById(userId));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<User> future;
+        Map<Long, CompletableFuture<User>> full = null;
+        synchronized (lock) {
+            future = pending.get(userId);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(userId, future);
+                if (pending.size() == 1) {
+                    flushTask = scheduler.schedule(this::flushDue, properties.getMaxWait(), TimeUnit.MILLISECONDS);
+                }
+                if (pending.size() >= Math.min(properties.getMaxBatchSize(), UserFeignClient.MAX_BATCH_SIZE)) {
+                    full = takePending();
+                }
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void flushDue() {
+        Map<Long, CompletableFuture<User>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * 取出当前窗口并开始新窗口，调用方需持有 lock
+     */
+    private Map<Long, CompletableFuture<User>> takePending() {
+        Map<Long, CompletableFuture<User>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<User>> batch) {
+        try {
+            dispatcher.execute(() -> fetch(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void fetch(Map<Long, CompletableFuture<User>> batch) {
+        try {
+            List<User> users = userFeignClient.getUsersByIds(new ArrayList<>(batch.keySet()));
+            Map<Long, User> byId = new HashMap<>();
+            if (users != null) {
+                users.forEach(user -> byId.put(user.getId(), user));
+            }
+            batch.forEach((userId, future) -> {
+                User user = byId.get(userId);
+                if (lastKnownGood != null) {
+                    lastKnownGood.put(userId, Optional.ofNullable(user));
+                }
+                future.complete(user);
+            });
+        } catch (Throwable e) {
+            log.debug("批量查询{}个用户失败:{}", batch.size(), e.getMessage());
+            fail(batch, e);
+        }
+    }
+
+    /**
+     * 批次失败：有兜底结果的id以其完成，其余以异常完成
+     */
+    private void fail(Map<Long, CompletableFuture<User>> batch, Throwable e) {
+        batch.forEach((userId, future) -> {
+            Optional<User> fallback = fallbackOf(userId);
+            if (fallback != null) {
+                future.complete(fallback.orElse(null));
+            } else {
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * @return 最近一次成功查询的结果，没有记录时为 null
+     */
+    private Optional<User> fallbackOf(Long userId) {
+        return lastKnownGood == null ? null : lastKnownGood.getIfPresent(userId);
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
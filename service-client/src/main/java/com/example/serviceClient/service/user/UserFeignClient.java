@@ -1,10 +1,15 @@
 package com.example.serviceClient.service.user;
 
 import com.example.model.user.pojo.User;
+import com.example.serviceClient.hedge.Hedged;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 /**
  * 用户服务Feign客户端
  *
@@ -15,11 +20,27 @@ import org.springframework.web.bind.annotation.RequestParam;
 public interface UserFeignClient {
 
     /**
-     * 按id获取用户
+     * 批量获取用户的单次上限
+     */
+    int MAX_BATCH_SIZE = 500;
+
+    /**
+     * 按id获取用户，慢于p95时对冲到另一个实例
      *
      * @param userId 用户id
      * @return {@link User}
      */
+    @Hedged
     @GetMapping("/get/id")
     User getUserById(@RequestParam("userId") Long userId);
+
+    /**
+     * 按id批量获取用户，不存在的id不出现在结果中；{@link UserBatchLoader} 经此查询，为只读的幂等请求，同样对冲
+     *
+     * @param userIds 用户id，单次最多 {@link #MAX_BATCH_SIZE} 个
+     * @return {@link List}<{@link User}>
+     */
+    @Hedged
+    @PostMapping("/get/ids")
+    List<User> getUsersByIds(@RequestBody List<Long> userIds);
 }
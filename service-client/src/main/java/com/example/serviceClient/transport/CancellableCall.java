@@ -0,0 +1,79 @@
+package com.example.serviceClient.transport;
+
+import okhttp3.Call;
+
+/**
+ * 可由其他线程取消的一次 Feign 请求
+ * <p>
+ * 发请求的线程在 {@link #enter()} 与 {@link #exit()} 之间发出的 OkHttp 调用会登记到本对象，
+ * {@link #cancel()} 取消该调用并关闭其连接，阻塞中的读取随即以 IOException 结束；取消之后才登记的调用立即取消。
+ * 中断线程不能结束阻塞的 socket 读取，需要由此取消。只在 feign.transport 开启时生效，
+ * 登记由 {@link com.example.serviceClient.config.FeignTransportConfig} 中 OkHttp 的事件监听工厂完成。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public final class CancellableCall {
+
+    private static final ThreadLocal<CancellableCall> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 最近登记的调用，由 this 保护
+     */
+    private Call call;
+
+    /**
+     * 是否已取消，由 this 保护
+     */
+    private boolean cancelled;
+
+    /**
+     * 之后当前线程发出的调用登记到本对象
+     */
+    public void enter() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * 结束登记，需在调用 {@link #enter()} 的线程上执行
+     */
+    public void exit() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 取消已登记及之后登记的调用
+     */
+    public void cancel() {
+        Call current;
+        synchronized (this) {
+            cancelled = true;
+            current = call;
+        }
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /**
+     * 把当前线程新建的 OkHttp 调用登记到其所在的 {@link CancellableCall}，未调用 {@link #enter()} 时忽略
+     *
+     * @param call OkHttp 调用
+     */
+    public static void register(Call call) {
+        CancellableCall current = CURRENT.get();
+        if (current == null) {
+            return;
+        }
+        boolean cancelNow;
+        synchronized (current) {
+            current.call = call;
+            cancelNow = current.cancelled;
+        }
+        if (cancelNow) {
+            call.cancel();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.serviceClient.transport;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计连接复用情况的 OkHttp 事件监听
+ * <p>
+ * 每次调用拿到连接时计一次获取，新建连接成功时计一次建连，复用率 = 1 - 建连数 / 获取数。
+ * 监听本身无状态，所有调用共享同一个实例。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class ConnectionReuseListener extends EventListener {
+
+    private final LongAdder acquired = new LongAdder();
+
+    private final LongAdder opened = new LongAdder();
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        opened.increment();
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        acquired.increment();
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    /**
+     * 连接复用率
+     *
+     * @return 0~1，尚无调用时为0
+     */
+    public double reuseRatio() {
+        long acquiredCount = acquired.sum();
+        if (acquiredCount == 0) {
+            return 0D;
+        }
+        return Math.max(0D, 1D - (double) opened.sum() / acquiredCount);
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.serviceClient.transport;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.ConnectionPool;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按下游实例限制在途请求并记录指标的 Feign 客户端
+ * <p>
+ * 位于负载均衡之后，请求地址已是具体实例。OkHttp 的同步调用不受其 Dispatcher 的单主机并发限制，
+ * 因此在这里以信号量限制每个实例(host:port)的在途请求数，已满时最多等待 acquireTimeout，
+ * 超时抛出 {@link IOException}，由 Feign 包装为 RetryableException。
+ * 名额在响应体关闭(或其输入流、Reader 关闭)时归还，读取响应体期间连接仍被占用；没有响应体或调用失败时立即归还。
+ * 耗时从发出请求到收到响应头为止，不含响应体的解码。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+public class PooledFeignClient implements Client {
+
+    private static final String METRIC_PREFIX = "feign.transport";
+
+    private final Client delegate;
+
+    private final int maxRequestsPerTarget;
+
+    private final long acquireTimeoutMillis;
+
+    /**
+     * host:port -> 实例的在途限制与指标
+     */
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    public PooledFeignClient(Client delegate, int maxRequestsPerTarget, long acquireTimeoutMillis) {
+        this.delegate = delegate;
+        this.maxRequestsPerTarget = maxRequestsPerTarget;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Target target = targets.computeIfAbsent(targetOf(request.url()), Target::new);
+        acquire(target);
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (IOException | RuntimeException | Error e) {
+            target.permits.release();
+            target.record("IO_ERROR", System.nanoTime() - start);
+            throw e;
+        }
+        target.record(outcomeOf(response.status()), System.nanoTime() - start);
+        if (response.body() == null) {
+            target.permits.release();
+            return response;
+        }
+        return response.toBuilder().body(new ReleasingBody(response.body(), target.permits)).build();
+    }
+
+    private void acquire(Target target) throws IOException {
+        try {
+            if (!target.permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                target.rejected.increment();
+                throw new IOException("下游实例" + target.name + "在途请求已达上限" + maxRequestsPerTarget);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待下游实例" + target.name + "的连接时被中断");
+        }
+    }
+
+    private static String targetOf(String url) {
+        URI uri = URI.create(url);
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getHost() + ":" + port;
+    }
+
+    private static String outcomeOf(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+
+    /**
+     * 注册连接池、连接复用与各实例的指标
+     *
+     * @param registry       指标注册表
+     * @param connectionPool OkHttp 连接池
+     * @param reuseListener  连接复用统计
+     */
+    public void bindTo(MeterRegistry registry, ConnectionPool connectionPool, ConnectionReuseListener reuseListener) {
+        Gauge.builder(METRIC_PREFIX + ".pool.connections", connectionPool, ConnectionPool::connectionCount)
+                .description("连接池中的连接数")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".pool.idle", connectionPool, ConnectionPool::idleConnectionCount)
+                .description("连接池中的空闲连接数")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".connections.acquired", reuseListener, ConnectionReuseListener::getAcquired)
+                .description("调用获取连接的次数")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".connections.opened", reuseListener, ConnectionReuseListener::getOpened)
+                .description("新建连接数")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".connections.reuse-ratio", reuseListener, ConnectionReuseListener::reuseRatio)
+                .description("连接复用率")
+                .register(registry);
+        this.registry = registry;
+        targets.values().forEach(target -> target.bind(registry));
+    }
+
+    /**
+     * 单个下游实例
+     */
+    private final class Target {
+
+        private final String name;
+
+        private final Semaphore permits = new Semaphore(maxRequestsPerTarget);
+
+        private final LongAdder rejected = new LongAdder();
+
+        /**
+         * 结果 -> 耗时，未注册指标时为空
+         */
+        private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+        private volatile boolean bound;
+
+        private Target(String name) {
+            this.name = name;
+            MeterRegistry current = registry;
+            if (current != null) {
+                bind(current);
+            }
+        }
+
+        private synchronized void bind(MeterRegistry registry) {
+            if (bound) {
+                return;
+            }
+            bound = true;
+            Gauge.builder(METRIC_PREFIX + ".target.in-flight", this, Target::inFlight)
+                    .tag("target", name)
+                    .description("实例的在途请求数")
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".target.saturation", this, target -> (double) target.inFlight() / maxRequestsPerTarget)
+                    .tag("target", name)
+                    .description("实例在途请求数占上限的比例")
+                    .register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".target.rejected", rejected, LongAdder::sum)
+                    .tag("target", name)
+                    .description("等待在途名额超时而失败的请求数")
+                    .register(registry);
+        }
+
+        private int inFlight() {
+            return maxRequestsPerTarget - permits.availablePermits();
+        }
+
+        private void record(String outcome, long nanos) {
+            MeterRegistry current = registry;
+            if (current == null) {
+                return;
+            }
+            timers.computeIfAbsent(outcome, key -> Timer.builder(METRIC_PREFIX + ".requests")
+                            .tag("target", name)
+                            .tag("outcome", key)
+                            .description("Feign 请求耗时(至收到响应头)")
+                            .publishPercentiles(0.5, 0.99)
+                            .register(current))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 关闭时归还实例名额的响应体，重复关闭只归还一次
+     */
+    private static final class ReleasingBody implements Response.Body {
+
+        private final Response.Body delegate;
+
+        private final Semaphore permits;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingBody(Response.Body delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+        }
+
+        @Override
+        public Integer length() {
+            return delegate.length();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return delegate.isRepeatable();
+        }
+
+        @Override
+        public InputStream asInputStream() throws IOException {
+            return new FilterInputStream(delegate.asInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public Reader asReader(Charset charset) throws IOException {
+            return new FilterReader(delegate.asReader(charset)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                delegate.close();
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
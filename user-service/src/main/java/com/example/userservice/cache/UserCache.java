@@ -0,0 +1,338 @@
+package com.example.userservice.cache;
+
+import com.alibaba.fastjson.JSON;
+import com.example.model.user.pojo.User;
+import com.example.userservice.mapper.UserMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按id查询用户的两级缓存：本地 Caffeine + redis
+ * <p>
+ * 读取顺序为本地 -> redis -> 数据库，同一节点上对同一id的并发未命中只加载一次。
+ * 不存在的用户在两级缓存中都以 negativeTtl 记录，避免不存在的id反复穿透到数据库。
+ * 本地条目写入超过 refreshAfter 后，下次访问在后台直接查库刷新本地条目，刷新完成前仍返回旧值，
+ * 热点用户因此在本地过期之前就已被刷新，不会在过期时集中回源。后台刷新不回写 redis：
+ * 刷新查库与 {@link #evict} 之间没有先后保证，回写可能把失效前读到的旧值重新写入 redis。
+ * 用户写入后由 {@link #evict} 在事务提交后删除 redis 条目，并通过 redis 发布订阅通知各节点失效本地条目。
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Component
+@Slf4j
+public class UserCache implements MessageListener, InitializingBean, DisposableBean {
+
+    private static final String METRIC_PREFIX = "user.cache";
+
+    /**
+     * redis 中表示用户不存在的值
+     */
+    private static final String MISSING = "null";
+
+    @Resource
+    private UserCacheProperties properties;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private LoadingCache<Long, Optional<User>> local;
+
+    private ExecutorService refreshExecutor;
+
+    private final LongAdder redisHits = new LongAdder();
+
+    private final LongAdder redisMisses = new LongAdder();
+
+    private Timer redisLoad;
+
+    private Timer dbLoad;
+
+    @Override
+    public void afterPropertiesSet() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-cache-refresh-");
+        threadFactory.setDaemon(true);
+        refreshExecutor = Executors.newFixedThreadPool(properties.getRefreshThreads(), threadFactory);
+        local = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxSize())
+                .expireAfter(new UserExpiry())
+                .refreshAfterWrite(properties.getRefreshAfter(), TimeUnit.MILLISECONDS)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(new UserLoader());
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(properties.getInvalidationChannel()));
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 按id获取用户
+     *
+     * @param userId 用户id
+     * @return {@link User}，不存在时为 null
+     */
+    public User get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return userMapper.selectById(userId);
+        }
+        return local.get(userId).orElse(null);
+    }
+
+    /**
+     * 按id批量获取用户，未命中的id合并为一次 redis 批量读取与一次数据库 IN 查询
+     *
+     * @param userIds 用户id
+     * @return {@link List}<{@link User}>，不含不存在的用户
+     */
+    public List<User> getAll(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return userMapper.selectBatchIds(userIds);
+        }
+        return local.getAll(userIds).values().stream().flatMap(Optional::stream).toList();
+    }
+
+    /**
+     * 用户写入后失效其缓存，处于事务中时在提交后执行
+     *
+     * @param userId 用户id
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(userId);
+                }
+            });
+        } else {
+            doEvict(userId);
+        }
+    }
+
+    private void doEvict(Long userId) {
+        local.invalidate(userId);
+        try {
+            stringRedisTemplate.delete(key(userId));
+            stringRedisTemplate.convertAndSend(properties.getInvalidationChannel(),
+                    userId + ":" + System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            //redis 不可用时其条目最多再存活 redisTtl，其他节点的本地条目最多再存活 localTtl
+            log.warn("用户{}的缓存失效未能写入redis:{}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 处理其他节点(及本节点)的失效广播
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int last = body.lastIndexOf(':');
+        try {
+            local.invalidate(Long.parseLong(last > 0 ? body.substring(0, last) : body));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析用户缓存失效广播:{}", body);
+        }
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, local, METRIC_PREFIX);
+        FunctionCounter.builder(METRIC_PREFIX + ".redis.hits", redisHits, LongAdder::sum)
+                .description("本地未命中而在redis命中的次数")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".redis.misses", redisMisses, LongAdder::sum)
+                .description("两级缓存均未命中而查库的用户数(不含后台刷新)")
+                .register(registry);
+        redisLoad = Timer.builder(METRIC_PREFIX + ".load")
+                .tag("source", "redis")
+                .description("本地未命中时从redis加载的耗时")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        dbLoad = Timer.builder(METRIC_PREFIX + ".load")
+                .tag("source", "db")
+                .description("从数据库加载的耗时")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private String key(Long userId) {
+        return properties.getKeyPrefix() + userId;
+    }
+
+    /**
+     * 从 redis 读取，未命中的id不出现在结果中，redis 不可用时视为全部未命中
+     */
+    private Map<Long, Optional<User>> readRedis(List<Long> userIds) {
+        long start = System.nanoTime();
+        Map<Long, Optional<User>> found = new HashMap<>();
+        List<String> values;
+        try {
+            values = stringRedisTemplate.opsForValue().multiGet(userIds.stream().map(this::key).toList());
+        } catch (RuntimeException e) {
+            log.debug("读取redis用户缓存失败，直接查库:{}", e.getMessage());
+            return found;
+        }
+        for (int i = 0; i < userIds.size(); i++) {
+            String value = values == null ? null : values.get(i);
+            if (value != null) {
+                found.put(userIds.get(i), Optional.ofNullable(MISSING.equals(value) ? null : JSON.parseObject(value, User.class)));
+            }
+        }
+        redisHits.add(found.size());
+        record(redisLoad, start);
+        return found;
+    }
+
+    /**
+     * 查库
+     */
+    private Map<Long, Optional<User>> loadDb(Collection<Long> userIds) {
+        long start = System.nanoTime();
+        Map<Long, Optional<User>> loaded = new HashMap<>();
+        userIds.forEach(userId -> loaded.put(userId, Optional.empty()));
+        List<User> users = userIds.size() == 1
+                ? Optional.ofNullable(userMapper.selectById(userIds.iterator().next())).map(List::of).orElse(List.of())
+                : userMapper.selectBatchIds(userIds);
+        users.forEach(user -> loaded.put(user.getId(), Optional.of(user)));
+        record(dbLoad, start);
+        return loaded;
+    }
+
+    private void writeRedis(Map<Long, Optional<User>> values) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                values.forEach((userId, user) -> connection.stringCommands().set(
+                        key(userId).getBytes(StandardCharsets.UTF_8),
+                        user.map(JSON::toJSONString).orElse(MISSING).getBytes(StandardCharsets.UTF_8),
+                        Expiration.milliseconds(user.isPresent() ? redisTtl() : properties.getNegativeTtl()),
+                        RedisStringCommands.SetOption.UPSERT));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.debug("回写redis用户缓存失败:{}", e.getMessage());
+        }
+    }
+
+    private long redisTtl() {
+        long ttl = properties.getRedisTtl();
+        return ttl + (long) (ttl * properties.getRedisTtlJitter() * ThreadLocalRandom.current().nextDouble());
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 本地未命中时先读 redis，未命中再查库并回写 redis；后台刷新时直接查库，只更新本地条目
+     */
+    private final class UserLoader implements CacheLoader<Long, Optional<User>> {
+
+        @Override
+        public Optional<User> load(Long userId) {
+            return loadAll(Set.of(userId)).get(userId);
+        }
+
+        @Override
+        public Map<Long, Optional<User>> loadAll(Set<? extends Long> keys) {
+            List<Long> userIds = new ArrayList<>(keys);
+            Map<Long, Optional<User>> result = readRedis(userIds);
+            List<Long> missing = userIds.stream().filter(userId -> !result.containsKey(userId)).toList();
+            if (!missing.isEmpty()) {
+                redisMisses.add(missing.size());
+                Map<Long, Optional<User>> loaded = loadDb(missing);
+                writeRedis(loaded);
+                result.putAll(loaded);
+            }
+            return result;
+        }
+
+        @Override
+        public Optional<User> reload(Long userId, Optional<User> oldValue) {
+            return loadDb(List.of(userId)).get(userId);
+        }
+    }
+
+    /**
+     * 存在的用户存活 localTtl，不存在的用户存活 negativeTtl(不超过 localTtl)
+     */
+    private final class UserExpiry implements Expiry<Long, Optional<User>> {
+
+        @Override
+        public long expireAfterCreate(Long userId, Optional<User> user, long currentTime) {
+            long ttl = user.isPresent() ? properties.getLocalTtl()
+                    : Math.min(properties.getNegativeTtl(), properties.getLocalTtl());
+            return TimeUnit.MILLISECONDS.toNanos(ttl);
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Optional<User> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Optional<User> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
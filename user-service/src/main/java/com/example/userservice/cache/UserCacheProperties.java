@@ -0,0 +1,67 @@
+package com.example.userservice.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户查询缓存配置
+ *
+ * @author fxab
+ * @date 2026/10/18
+ */
+@Data
+@ConfigurationProperties(prefix = "user.cache")
+@Component
+public class UserCacheProperties {
+
+    /**
+     * 是否启用缓存，关闭后直接查库
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 本地缓存的最大条目数
+     */
+    private Long localMaxSize = 10_000L;
+
+    /**
+     * 本地缓存条目的存活时间(毫秒)
+     */
+    private Long localTtl = 60_000L;
+
+    /**
+     * 本地缓存条目写入多久后(毫秒)在下次访问时后台刷新，刷新期间仍返回旧值，需小于 localTtl
+     */
+    private Long refreshAfter = 45_000L;
+
+    /**
+     * redis 缓存条目的存活时间(毫秒)
+     */
+    private Long redisTtl = 600_000L;
+
+    /**
+     * redis 存活时间的随机增量比例(0~1)，避免同时写入的条目同时过期
+     */
+    private Double redisTtlJitter = 0.1;
+
+    /**
+     * 用户不存在时的缓存时间(毫秒)，两级缓存相同
+     */
+    private Long negativeTtl = 30_000L;
+
+    /**
+     * 后台刷新线程数
+     */
+    private Integer refreshThreads = 2;
+
+    /**
+     * redis 缓存键前缀
+     */
+    private String keyPrefix = "user:cache:";
+
+    /**
+     * 失效广播频道，消息为 用户id:发布时间戳
+     */
+    private String invalidationChannel = "user:cache:invalidate";
+}
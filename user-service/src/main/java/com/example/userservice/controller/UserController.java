@@ -1,10 +1,12 @@
 package com.example.userservice.controller;
 
+import com.example.common.auth.LoginUser;
 import com.example.common.result.BaseResult;
 import com.example.common.result.ResultUtil;
 import com.example.model.user.dto.UserLoginRequest;
 import com.example.userservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
@@ -44,8 +46,8 @@ public class UserController {
 
     @Operation(summary = "用户登出")
     @PostMapping("/logout")
-    public BaseResult<Map<String, Object>> Logout(String userId){
-        Boolean logoutResult = userService.logout(userId);
+    public BaseResult<Map<String, Object>> Logout(@Parameter(hidden = true) LoginUser loginUser){
+        Boolean logoutResult = userService.logout(loginUser.getUserId());
         if (logoutResult){
             return ResultUtil.success();
         }
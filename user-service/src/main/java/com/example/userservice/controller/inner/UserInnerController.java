@@ -2,12 +2,18 @@ package com.example.userservice.controller.inner;
 
 import com.example.model.user.pojo.User;
 import com.example.serviceClient.service.user.UserFeignClient;
-import com.example.userservice.service.UserService;
+import com.example.userservice.cache.UserCache;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Objects;
+
+import static com.example.common.exception.ThrowUtils.throwIf;
+import static com.example.common.result.ErrorCode.PARAMS_ERROR;
+
 /**
  * 用户内部控制器
  *
@@ -20,10 +26,10 @@ import org.springframework.web.bind.annotation.RestController;
 public class UserInnerController implements UserFeignClient {
 
     /**
-     * 用户服务
+     * 用户查询缓存
      */
     @Resource
-    private UserService userService;
+    private UserCache userCache;
 
     /**
      * 按id获取用户
@@ -33,7 +39,26 @@ public class UserInnerController implements UserFeignClient {
      */
     @Override
     public User getUserById(Long userId) {
-        User user = userService.getById(userId);
+        User user = userCache.get(userId);
         return user;
     }
+
+    /**
+     * 按id批量获取用户，未命中缓存的id一次 IN 查询
+     *
+     * @param userIds 用户id
+     * @return {@link List}<{@link User}>
+     */
+    @Override
+    public List<User> getUsersByIds(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        List<Long> distinctIds = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        throwIf(distinctIds.size() > MAX_BATCH_SIZE, PARAMS_ERROR, "单次最多查询" + MAX_BATCH_SIZE + "个用户");
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        return userCache.getAll(distinctIds);
+    }
 }
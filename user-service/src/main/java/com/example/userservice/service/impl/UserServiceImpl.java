@@ -7,8 +7,10 @@ import com.example.common.exception.BusinessException;
 import com.example.common.result.ErrorCode;
 
 import com.example.jwtutil.jwtUtil.JwtTokenUtil;
+import com.example.jwtutil.jwtUtil.ParsedToken;
 import com.example.model.user.pojo.User;
 import com.example.serviceClient.service.order.OrderFeignClient;
+import com.example.userservice.cache.UserCache;
 import com.example.userservice.mapper.UserMapper;
 import com.example.userservice.service.UserService;
 import io.seata.spring.annotation.GlobalTransactional;
@@ -18,6 +20,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
 import java.util.Map;
 
 import static com.example.common.constant.RabbitMQConstant.DEMO_MESSAGE_EXCHANGE;
@@ -48,6 +51,34 @@ public class UserServiceImpl extends ServiceImpl<UserMapper,User> implements Use
     @Resource
     private OrderFeignClient orderFeignClient;
 
+    /**
+     * 按id查询用户的缓存，写入用户后失效
+     */
+    @Resource
+    private UserCache userCache;
+
+    @Override
+    public boolean save(User entity) {
+        boolean saved = super.save(entity);
+        //新用户的id可能已作为不存在的id被缓存
+        userCache.evict(entity.getId());
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(User entity) {
+        boolean updated = super.updateById(entity);
+        userCache.evict(entity.getId());
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        userCache.evict(Long.valueOf(id.toString()));
+        return removed;
+    }
+
     /**
      * 用户登录
      *
@@ -87,14 +118,12 @@ public class UserServiceImpl extends ServiceImpl<UserMapper,User> implements Use
     public Map<String, Object> refreshToken(String refreshToken) {
         //未获取到token
         throwIf(StringUtils.isEmpty(refreshToken),ErrorCode.TOKEN_MISSION);
-        //token无效或过期
-        throwIf(jwtTokenUtil.isTokenExpired(refreshToken),ErrorCode.TOKEN_INVALID);
-        String userId = jwtTokenUtil.getUserIdFromToken(refreshToken);
-        String username = jwtTokenUtil.getUserNameFromToken(refreshToken);
-        //判断令牌是否在redis中
-        throwIf(jwtTokenUtil.isRefreshTokenNotExistCache(refreshToken),ErrorCode.TOKEN_INVALID);
-        //刷新token，refresh仅使用一次，用完即删除
-        Map<String, Object> tokenMap = jwtTokenUtil.refreshTokenAndGenerateToken(userId, username);
+        //token无效或过期(仅校验一次签名)
+        ParsedToken parsedToken = jwtTokenUtil.parseToken(refreshToken);
+        throwIf(!parsedToken.isValid(),ErrorCode.TOKEN_INVALID);
+        //刷新token，refresh仅使用一次：与redis中的令牌比较并原子替换，不一致说明已使用或已登出
+        Map<String, Object> tokenMap = jwtTokenUtil.rotateRefreshToken(parsedToken, refreshToken);
+        throwIf(tokenMap == null,ErrorCode.TOKEN_INVALID);
         return tokenMap;
     }
 